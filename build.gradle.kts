@@ -12,9 +12,36 @@ repositories {
 
 dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.6.0")
-    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine")
+    testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.6.0")
 }
 
 tasks.getByName<Test>("test") {
     useJUnitPlatform()
 }
+
+// Benchmarks live in their own source set, so that neither JMH nor the benchmarks end up in the library.
+// Run them with `./gradlew jmh`, or a subset with `./gradlew jmh -PjmhIncludes=PlotBenchmark`.
+sourceSets {
+    create("jmh") {
+        compileClasspath += sourceSets.main.get().output
+        runtimeClasspath += sourceSets.main.get().output
+    }
+}
+
+val jmhVersion = "1.37"
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks, reporting allocation rates alongside latencies."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    // The gc profiler reports the allocation rate and bytes allocated per operation of every benchmark.
+    args("-prof", "gc", "-rf", "json", "-rff", layout.buildDirectory.file("jmh-results.json").get().asFile.path)
+    findProperty("jmhIncludes")?.let { args(it) }
+    jvmArgs("-Djava.awt.headless=true")
+}
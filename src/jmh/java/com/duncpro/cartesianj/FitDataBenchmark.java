@@ -0,0 +1,49 @@
+package com.duncpro.cartesianj;
+
+import com.duncpro.cartesianj.awt.HeadlessCartesianPlaneViewport;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures fitting a viewport to planes of increasing size. The cost should not depend on the number of points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FitDataBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    int n;
+
+    HeadlessCartesianPlaneViewport viewport;
+
+    @Setup
+    public void setUp() {
+        final var random = new Random(0);
+        final double[] xs = new double[n];
+        final double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextGaussian() * 1000;
+            ys[i] = random.nextGaussian() * 1000;
+        }
+        final var plane = new CartesianPlane();
+        plane.plot(xs, ys);
+        viewport = new HeadlessCartesianPlaneViewport(plane, 800, 600);
+    }
+
+    @Benchmark
+    public double fitData() {
+        viewport.fitData();
+        return viewport.getQuantitativeStepSize(Axis.X);
+    }
+
+    @Benchmark
+    public double fitDataIfNeeded() {
+        viewport.fitDataIfNeeded();
+        return viewport.getQuantitativeStepSize(Axis.X);
+    }
+}
@@ -0,0 +1,109 @@
+package com.duncpro.cartesianj;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+
+/**
+ * Compares sampling a polynomial, a piecewise-linear function and a sum of sinusoids across one frame's worth of
+ * x values in bulk, with sampling the equivalent {@link Function Function&lt;Double, Double&gt;} through the boxing
+ * adapter of {@link CartesianPlane}, one x value at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FunctionFamilyBenchmark {
+    // One sample per pixel column of a wide viewport
+    private static final int SAMPLES = 1600;
+
+    final double[] xs = new double[SAMPLES];
+    final double[] ys = new double[SAMPLES];
+
+    Polynomial polynomial;
+    DoubleUnaryOperator boxedPolynomial;
+
+    PiecewiseLinearFunction piecewise;
+    DoubleUnaryOperator boxedPiecewise;
+
+    LinearCombination sinusoids;
+    DoubleUnaryOperator boxedSinusoids;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < SAMPLES; i++) xs[i] = (i - (SAMPLES / 2)) * 0.01;
+
+        final double[] coefficients = {1, -2, 0.5, 3, -0.25, 0.01};
+        polynomial = new Polynomial(coefficients);
+        boxedPolynomial = CartesianPlane.adapt((Double x) -> {
+            double y = 0;
+            for (int i = coefficients.length - 1; i >= 0; i--) y = (y * x) + coefficients[i];
+            return y;
+        });
+
+        final double[] knotXs = new double[100];
+        final double[] knotYs = new double[100];
+        for (int i = 0; i < knotXs.length; i++) {
+            knotXs[i] = -8 + (i * 0.16);
+            knotYs[i] = Math.sin(knotXs[i]);
+        }
+        piecewise = new PiecewiseLinearFunction(knotXs, knotYs);
+        boxedPiecewise = CartesianPlane.adapt((Double x) -> {
+            int segment = Arrays.binarySearch(knotXs, x);
+            if (segment < 0) segment = -segment - 2;
+            if (segment < 0 || segment >= knotXs.length - 1) return Double.NaN;
+            final double t = (x - knotXs[segment]) / (knotXs[segment + 1] - knotXs[segment]);
+            return knotYs[segment] + (t * (knotYs[segment + 1] - knotYs[segment]));
+        });
+
+        final double[] weights = {1, 0.5, 0.25};
+        sinusoids = new LinearCombination(weights, new DoubleUnaryOperator[] {
+                Math::sin, x -> Math.sin(2 * x), x -> Math.sin(3 * x)
+        });
+        boxedSinusoids = CartesianPlane.adapt((Double x) ->
+                (weights[0] * Math.sin(x)) + (weights[1] * Math.sin(2 * x)) + (weights[2] * Math.sin(3 * x)));
+    }
+
+    private double[] sampleScalar(DoubleUnaryOperator f) {
+        for (int i = 0; i < SAMPLES; i++) ys[i] = f.applyAsDouble(xs[i]);
+        return ys;
+    }
+
+    @Benchmark
+    public double[] polynomialBoxed() {
+        return sampleScalar(boxedPolynomial);
+    }
+
+    @Benchmark
+    public double[] polynomialBatch() {
+        polynomial.applyAsDouble(xs, ys, 0, SAMPLES);
+        return ys;
+    }
+
+    @Benchmark
+    public double[] piecewiseBoxed() {
+        return sampleScalar(boxedPiecewise);
+    }
+
+    @Benchmark
+    public double[] piecewiseBatch() {
+        piecewise.applyAsDouble(xs, ys, 0, SAMPLES);
+        return ys;
+    }
+
+    @Benchmark
+    public double[] sinusoidsBoxed() {
+        return sampleScalar(boxedSinusoids);
+    }
+
+    @Benchmark
+    public double[] sinusoidsBatch() {
+        sinusoids.applyAsDouble(xs, ys, 0, SAMPLES);
+        return ys;
+    }
+}
@@ -0,0 +1,80 @@
+package com.duncpro.cartesianj;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of plotting a single point, both as the plane grows and while many threads plot concurrently.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlotBenchmark {
+    /**
+     * Plots n points into an empty plane per invocation, so the reported time is the average cost of one point
+     * while the plane grows to n points.
+     */
+    @State(Scope.Thread)
+    public static class Growing {
+        @Param({"1000", "100000", "1000000"})
+        int n;
+
+        Point[] points;
+
+        @Setup
+        public void setUp() {
+            points = new Point[n];
+            for (int i = 0; i < n; i++) points[i] = new Point((double) i, (double) -i);
+        }
+    }
+
+    @Benchmark
+    public CartesianPlane plotPoint(Growing state) {
+        final var plane = new CartesianPlane();
+        for (Point point : state.points) plane.plot(point);
+        // Reading the plane drains the points which were plotted one at a time.
+        plane.getPlottedPointCount();
+        return plane;
+    }
+
+    /**
+     * A plane shared by every benchmark thread. It is replaced at the beginning of each iteration, so that its memory
+     * does not grow throughout the run.
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+        CartesianPlane plane;
+        final Point point = new Point(1.0, 2.0);
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            plane = new CartesianPlane();
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void plotPointContended(Shared state) {
+        state.plane.plot(state.point);
+    }
+
+    /**
+     * The contended benchmark with a reader draining the plane concurrently, as a viewport would while it is drawn.
+     */
+    @Benchmark
+    @Group("plotWhileReading")
+    @GroupThreads(3)
+    public void plotPointWhileReading(Shared state) {
+        state.plane.plot(state.point);
+    }
+
+    @Benchmark
+    @Group("plotWhileReading")
+    @GroupThreads(1)
+    public int readWhilePlotting(Shared state) {
+        return state.plane.getPlottedPointCount();
+    }
+}
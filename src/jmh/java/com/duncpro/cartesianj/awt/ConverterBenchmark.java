@@ -0,0 +1,65 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.Axis;
+import com.duncpro.cartesianj.CartesianPlane;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the conversions between units and pixels, which are performed for every drawn point and tick,
+ * both one coordinate at a time and in bulk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ConverterBenchmark {
+    AwtPixelConverter converter;
+    double units = 123.456;
+    int px = 321;
+    double[] coordinates;
+    int[] screenPositions;
+    float[] screenPositionsFloat;
+
+    @Param({ "4096" })
+    int batchSize;
+
+    @Setup
+    public void setUp() {
+        final var viewport = new HeadlessCartesianPlaneViewport(new CartesianPlane(), 800, 600);
+        viewport.setQuantitativeStepSize(Axis.X, 3);
+        viewport.setVisualStepSize(Axis.X, 25);
+        converter = viewport.getConverter();
+        final var random = new Random(42);
+        coordinates = new double[batchSize];
+        for (int i = 0; i < batchSize; i++) coordinates[i] = (random.nextDouble() - 0.5) * 1000;
+        screenPositions = new int[batchSize];
+        screenPositionsFloat = new float[batchSize];
+    }
+
+    @Benchmark
+    public int toPx() {
+        return converter.toPx(units, Axis.X);
+    }
+
+    @Benchmark
+    public double toUnits() {
+        return converter.toUnits(px, Axis.X);
+    }
+
+    @Benchmark
+    public int[] toScreenBatch() {
+        converter.toScreen(Axis.X, coordinates, 0, screenPositions, 0, batchSize);
+        return screenPositions;
+    }
+
+    @Benchmark
+    public float[] toScreenBatchFloat() {
+        converter.toScreen(Axis.X, coordinates, 0, screenPositionsFloat, 0, batchSize);
+        return screenPositionsFloat;
+    }
+}
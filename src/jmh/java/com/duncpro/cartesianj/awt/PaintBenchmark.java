@@ -0,0 +1,78 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.CartesianPlane;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures painting a full frame of {@link AwtCartesianPlaneViewport} into an offscreen image, with varying numbers
+ * of functions and points. With warm caches functions are not sampled again, and tiles of points are not rasterized
+ * again, which is the cost of a repaint. With cold caches every function is sampled and every tile rasterized from
+ * scratch, which is the cost of a zoom.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PaintBenchmark {
+    @Param({"0", "1", "8"})
+    int functions;
+
+    @Param({"0", "10000", "1000000"})
+    int points;
+
+    @Param({"true", "false"})
+    boolean warmCache;
+
+    AwtCartesianPlaneViewport viewport;
+    BufferedImage image;
+    Graphics2D graphics;
+
+    @Setup
+    public void setUp() {
+        final var plane = new CartesianPlane();
+        for (int i = 0; i < functions; i++) {
+            final double frequency = i + 1;
+            plane.plotOperator("f" + i, (double x) -> Math.sin(x * frequency) * frequency);
+        }
+        final var random = new Random(0);
+        final double[] xs = new double[points];
+        final double[] ys = new double[points];
+        for (int i = 0; i < points; i++) {
+            xs[i] = random.nextGaussian() * 10;
+            ys[i] = random.nextGaussian() * 10;
+        }
+        plane.plot(xs, ys);
+
+        viewport = new AwtCartesianPlaneViewport(plane);
+        viewport.setSize(800, 600);
+        viewport.setSampleCache(new SampleCache(8L * 1024 * 1024));
+        viewport.setTileCache(new TileCache(16L * 1024 * 1024));
+        image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        if (warmCache) return;
+        viewport.getSampleCache().clear();
+        viewport.getTileCache().clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paint() {
+        viewport.paint(graphics);
+        return image;
+    }
+}
@@ -0,0 +1,62 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.Axis;
+import com.duncpro.cartesianj.CartesianPlane;
+import com.duncpro.cartesianj.Direction;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a frame of a viewport which is being panned across a static scatter plot, one pixel per frame, with and
+ * without the points being drawn from cached tiles.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PanBenchmark {
+    @Param({"10000", "90000"})
+    int points;
+
+    @Param({"true", "false"})
+    boolean tiled;
+
+    HeadlessCartesianPlaneViewport viewport;
+    HeadlessRenderer renderer;
+    BufferedImage image;
+    int frame = 0;
+
+    @Setup
+    public void setUp() {
+        final var plane = new CartesianPlane();
+        final var random = new Random(0);
+        final double[] xs = new double[points];
+        final double[] ys = new double[points];
+        for (int i = 0; i < points; i++) {
+            xs[i] = random.nextGaussian() * 20;
+            ys[i] = random.nextGaussian() * 20;
+        }
+        plane.plot(xs, ys);
+
+        viewport = new HeadlessCartesianPlaneViewport(plane, 800, 600);
+        viewport.setVisualStepSize(Axis.X, 10);
+        viewport.setVisualStepSize(Axis.Y, 10);
+        renderer = new HeadlessRenderer();
+        renderer.setTileCache(new TileCache(tiled ? 32L * 1024 * 1024 : 0));
+        image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Benchmark
+    public BufferedImage pan() {
+        // Moves across one tile and then starts over, so that the benchmark measures panning over tiles which have
+        // been rasterized before, rather than exploring new ones
+        viewport.setOffset(Direction.HORIZONTAL, (double) (frame++ % 256));
+        renderer.render(viewport, image);
+        return image;
+    }
+}
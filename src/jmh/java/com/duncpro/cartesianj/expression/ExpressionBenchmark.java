@@ -0,0 +1,50 @@
+package com.duncpro.cartesianj.expression;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Compares evaluating a compiled expression with evaluating the equivalent lambda, and measures compiling an
+ * expression which is not cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+    private static final String SOURCE = "sin(x)^2 + 3x^2 - x / 7 + sin(x)";
+
+    final Expression expression = Expression.compile(SOURCE);
+    final DoubleUnaryOperator lambda = x -> Math.pow(Math.sin(x), 2) + 3 * Math.pow(x, 2) - x / 7 + Math.sin(x);
+    final double[] xs = new double[1000];
+    int uncached = 0;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < xs.length; i++) xs[i] = (i - 500) * 0.01;
+    }
+
+    @Benchmark
+    public double compiled() {
+        double sum = 0;
+        for (double x : xs) sum += expression.applyAsDouble(x);
+        return sum;
+    }
+
+    @Benchmark
+    public double lambda() {
+        double sum = 0;
+        for (double x : xs) sum += lambda.applyAsDouble(x);
+        return sum;
+    }
+
+    @Benchmark
+    public Expression compile() {
+        // The source text differs every time, so that it is never found in the cache
+        return Expression.compile(SOURCE + " + " + uncached++);
+    }
+}
@@ -0,0 +1,22 @@
+package com.duncpro.cartesianj;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A function which can be evaluated for many inputs at once. Viewports sample every plotted function across the
+ * entire visible range of x values. Functions which implement this interface receive all of those x values in a
+ * single call, instead of one call per sample, which allows them to amortize per-call overhead or evaluate
+ * their inputs in bulk.
+ */
+@FunctionalInterface
+public interface BatchFunction extends DoubleUnaryOperator {
+    /**
+     * Evaluates the function for {@code xs[offset]} through {@code xs[offset + length - 1]}, storing each result
+     * at the same index of {@code ys}. Implementations must not retain a reference to either array.
+     */
+    default void applyAsDouble(double[] xs, double[] ys, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            ys[i] = applyAsDouble(xs[i]);
+        }
+    }
+}
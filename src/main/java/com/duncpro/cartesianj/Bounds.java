@@ -0,0 +1,75 @@
+package com.duncpro.cartesianj;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The smallest rectangle which contains a set of points, including its edges. Instances are immutable.
+ */
+public final class Bounds {
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+
+    Bounds(double minX, double minY, double maxX, double maxY) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Returns bounds which contain both these bounds and the given point,
+     * which are these bounds if they already contain the point.
+     */
+    Bounds include(double x, double y) {
+        if (contains(x, y)) return this;
+        return new Bounds(Math.min(minX, x), Math.min(minY, y), Math.max(maxX, x), Math.max(maxY, y));
+    }
+
+    /**
+     * Returns bounds which contain both these bounds and the given bounds.
+     */
+    Bounds include(Bounds other) {
+        return include(other.minX, other.minY).include(other.maxX, other.maxY);
+    }
+
+    public double getMin(Axis axis) {
+        requireNonNull(axis);
+        switch (axis) {
+            case X:
+                return minX;
+            case Y:
+                return minY;
+        }
+        throw new AssertionError();
+    }
+
+    public double getMax(Axis axis) {
+        requireNonNull(axis);
+        switch (axis) {
+            case X:
+                return maxX;
+            case Y:
+                return maxY;
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * The largest distance from the origin of any point along the given axis, in other words the largest absolute
+     * value of any coordinate of that axis.
+     */
+    public double getMaxMagnitude(Axis axis) {
+        return Math.max(Math.abs(getMin(axis)), Math.abs(getMax(axis)));
+    }
+
+    public boolean contains(double x, double y) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    @Override
+    public String toString() {
+        return "Bounds{x: [" + minX + ", " + maxX + "], y: [" + minY + ", " + maxY + "]}";
+    }
+}
@@ -6,6 +6,8 @@ import javax.swing.*;
 
 import java.awt.*;
 import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -13,14 +15,33 @@ import static com.duncpro.cartesianj.Direction.HORIZONTAL;
 import static com.duncpro.cartesianj.Direction.VERTICAL;
 
 public class CartesianJ {
+    // The windows which are open, so that new windows are placed beside them. Guarded by itself, since windows are
+    // presented on any thread, but closed on the event dispatch thread.
     private static final Set<Window> windows = new HashSet<>();
 
+    /**
+     * Opens the given plane in a new window. Frames are drawn on the event dispatch thread, so the plotted functions
+     * are only ever evaluated on that thread.
+     * @see #present(CartesianPlane, boolean)
+     */
     public static CartesianPlaneViewport present(CartesianPlane plane) {
+        return present(plane, false);
+    }
+
+    /**
+     * Opens the given plane in a new window, optionally rendering its frames in the background, which keeps the menus
+     * responsive while expensive functions are being sampled. Background rendering evaluates the plotted functions
+     * on the shared render threads, possibly at the same time as the viewports of other windows evaluate them, so it
+     * should only be enabled if the functions are thread-safe.
+     * @see AwtCartesianPlaneViewport#setBackgroundRendering(boolean)
+     */
+    public static CartesianPlaneViewport present(CartesianPlane plane, boolean backgroundRendering) {
         System.setProperty("apple.laf.useScreenMenuBar", "true");
         System.setProperty("apple.awt.application.name", "CartesianJ");
 
         final var window = new JFrame();
         final var viewport = new AwtCartesianPlaneViewport(plane);
+        viewport.setBackgroundRendering(backgroundRendering);
         window.getContentPane().add(viewport);
         Dimension screenDimensions = window.getToolkit().getScreenSize();
         int windowSize = Math.min(screenDimensions.height, screenDimensions.width) / 2;
@@ -83,13 +104,27 @@ public class CartesianJ {
 
         int maxWindowsHorizontally = screenDimensions.width / windowSize;
         int maxWindowsVertically = screenDimensions.height / windowSize;
-        int windowRow = windows.size() % maxWindowsHorizontally;
-        int windowCol = windows.size() % maxWindowsVertically;
+        final int openWindows;
+        synchronized (windows) {
+            openWindows = windows.size();
+        }
+        int windowRow = openWindows % maxWindowsHorizontally;
+        int windowCol = openWindows % maxWindowsVertically;
         window.setLocation(windowRow * windowSize, windowCol * windowSize);
         window.setVisible(true);
         window.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
         plane.getTitle().ifPresent(window::setTitle);
-        windows.add(window);
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                synchronized (windows) {
+                    windows.remove(window);
+                }
+            }
+        });
+        synchronized (windows) {
+            windows.add(window);
+        }
         return viewport;
     }
 }
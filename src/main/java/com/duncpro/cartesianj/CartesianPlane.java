@@ -1,8 +1,12 @@
 package com.duncpro.cartesianj;
 
+import com.duncpro.cartesianj.expression.Expression;
+import com.duncpro.cartesianj.expression.ExpressionSyntaxException;
+
 import java.util.*;
-import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 import static java.util.Objects.requireNonNull;
@@ -21,33 +25,397 @@ public class CartesianPlane {
         this(null);
     }
 
-    private final Set<Point> points = new CopyOnWriteArraySet<>();
+    // Held while publishing modifications so that the changes made by a single transaction are never interleaved
+    // with the changes made by another.
+    private final Object mutationLock = new Object();
+
+    private final PointStore points = new PointStore();
+
+    // Points plotted one at a time wait here until the next read of the plane, so that concurrent producers
+    // do not contend on the store's lock.
+    private final PointStagingBuffer stagedPoints = new PointStagingBuffer();
+
+    /**
+     * Moves the points which have been plotted one at a time into the store. Every method which reads points
+     * invokes this first, so a thread always observes the points which it plotted itself, as well as the points
+     * plotted by other threads before the plane notified it of them.
+     */
+    private void drainStagedPoints() {
+        stagedPoints.drainTo(points);
+    }
+
     public void plot(Point point) {
         requireNonNull(point);
-        points.add(point);
-        changeListeners.forEach(Runnable::run);
+        plot(point.getX(), point.getY());
+    }
+
+    /**
+     * Plots a single point. This method never blocks, so many threads may plot points concurrently
+     * without contending with each other or with the thread which draws the plane.
+     */
+    public void plot(double x, double y) {
+        stagedPoints.add(x, y);
+        fireChange(1, Set.of());
+    }
+
+    /**
+     * Plots every point produced by the given {@link Iterable}. Listeners are notified once for the entire batch,
+     * instead of once per point.
+     */
+    public void plot(Iterable<Point> points) {
+        requireNonNull(points);
+        drainStagedPoints();
+        fireChange(this.points.addAll(points), Set.of());
+    }
+
+    /**
+     * Plots the points {@code (xs[i], ys[i])}. The coordinates are copied directly into the plane's
+     * columnar point storage, so no {@link Point} objects are created. Listeners are notified once for the
+     * entire batch, instead of once per point.
+     */
+    public void plot(double[] xs, double[] ys) {
+        requireNonNull(xs);
+        requireNonNull(ys);
+        if (xs.length != ys.length) throw new IllegalArgumentException("xs and ys must be of equal length");
+        drainStagedPoints();
+        points.addAll(xs, ys, 0, xs.length);
+        fireChange(xs.length, Set.of());
+    }
+
+    /**
+     * Passes the coordinates of every plotted point to the given consumer. Unlike {@link #getPlottedPoints()}
+     * this method does not copy the plotted points, and is therefore preferable on hot paths like rendering.
+     */
+    public void forEachPoint(PointConsumer consumer) {
+        requireNonNull(consumer);
+        drainStagedPoints();
+        points.forEach(consumer);
+    }
+
+    /**
+     * Passes the coordinates of the points at positions {@code fromIndex} (inclusive) through {@code toIndex}
+     * (exclusive) to the given consumer, where a point's position is the number of points plotted before it.
+     * Plotted points are never removed, so this allows a reader to process only the points plotted since it last
+     * looked at the plane.
+     * @throws IndexOutOfBoundsException if the range is not within {@link #getPlottedPointCount()}
+     */
+    public void forEachPoint(int fromIndex, int toIndex, PointConsumer consumer) {
+        requireNonNull(consumer);
+        drainStagedPoints();
+        Objects.checkFromToIndex(fromIndex, toIndex, points.size());
+        points.forEach(fromIndex, toIndex, consumer);
+    }
+
+    private final PointIndex pointIndex = new PointIndex(points);
+
+    /**
+     * Passes the coordinates of every plotted point within the given rectangle, including its edges, to the given
+     * consumer. The points are found using a spatial index, so the cost of this method grows with the number of points
+     * within the rectangle, not with the total number of plotted points. This makes it well suited to drawing only the
+     * visible part of a large data set.
+     *
+     * The consumer must not block on another thread which is reading points from this plane.
+     * @return the number of plotted points which the query considered. Points plotted concurrently, after this many
+     * points, are not passed to the consumer. They can be read afterwards using
+     * {@link #forEachPoint(int, int, PointConsumer)}.
+     */
+    public int forEachPointWithin(double minX, double minY, double maxX, double maxY, PointConsumer consumer) {
+        drainStagedPoints();
+        return pointIndex.forEachWithin(minX, minY, maxX, maxY, consumer);
     }
+
+    public int getPlottedPointCount() {
+        drainStagedPoints();
+        return points.size();
+    }
+
+    /**
+     * Returns the smallest rectangle which contains every plotted point, and every point currently held by a
+     * {@link PointSeries}. The bounds are maintained as points are plotted, so this method does not scan the points.
+     * Points whose coordinates are NaN or infinite are ignored.
+     * @return the bounds, or an empty {@link Optional} if no finite points have been plotted
+     */
+    public Optional<Bounds> getBounds() {
+        drainStagedPoints();
+        Bounds bounds = points.bounds();
+        for (PointSeries s : series.values()) {
+            final Bounds seriesBounds = s.getBounds().orElse(null);
+            if (seriesBounds == null) continue;
+            bounds = bounds == null ? seriesBounds : bounds.include(seriesBounds);
+        }
+        return Optional.ofNullable(bounds);
+    }
+
     public Set<Point> getPlottedPoints() {
-        return Set.copyOf(points);
+        drainStagedPoints();
+        final var copy = new HashSet<Point>(points.size());
+        points.forEach((x, y) -> copy.add(new Point(x, y)));
+        return Collections.unmodifiableSet(copy);
     }
 
-    private final Map<String, Function<Double, Double>> functions = new HashMap<>();
-    public void plot(String label, Function<Double, Double> f) {
+    // Copy-on-write, so that readers always observe a complete map, and replacing many functions
+    // within a transaction becomes visible all at once.
+    // The map is sorted by label, which is the order in which functions are drawn.
+    private volatile SortedMap<String, DoubleUnaryOperator> functions = Collections.emptySortedMap();
+
+    /**
+     * Plots the given function. If a function with the given label is already plotted it is replaced.
+     * Functions are sampled on primitive doubles, so implementations which avoid boxing are evaluated
+     * without allocating. Functions which implement {@link BatchFunction} are evaluated in bulk.
+     */
+    public void plotOperator(String label, DoubleUnaryOperator f) {
         requireNonNull(f);
         requireNonNull(label);
-        functions.put(label, f);
-        changeListeners.forEach(Runnable::run);
+        synchronized (mutationLock) {
+            final var newFunctions = new TreeMap<>(functions);
+            newFunctions.put(label, f);
+            functions = Collections.unmodifiableSortedMap(newFunctions);
+            modificationCount.incrementAndGet();
+        }
+        fireChange(0, Set.of(label));
+    }
+
+    public void plot(String label, Function<Double, Double> f) {
+        plotOperator(label, adapt(f));
+    }
+
+    /**
+     * Plots the function of x defined by the given formula, for instance {@code "3x^2 - sin(x) / 2"}.
+     * The formula is compiled to bytecode, and compiled formulas are cached by their text, so plotting the same
+     * formula again neither compiles it nor samples it again. See {@link Expression} for the syntax.
+     * @throws ExpressionSyntaxException if the formula is not a valid expression
+     */
+    public void plot(String label, String expression) {
+        requireNonNull(label);
+        plotOperator(label, Expression.compile(expression));
     }
+
+    /**
+     * Returns the plotted functions keyed by label. Functions which were plotted as a
+     * {@link Function Function&lt;Double, Double&gt;} are returned as they were given.
+     * Prefer {@link #getPlottedOperators()}, which does not create an adapter for primitive functions.
+     */
     public Map<String, Function<Double, Double>> getPlottedFunctions() {
-        return Map.copyOf(functions);
+        final var boxed = new HashMap<String, Function<Double, Double>>();
+        functions.forEach((label, f) -> boxed.put(label, unadapt(f)));
+        return Map.copyOf(boxed);
+    }
+
+    /**
+     * Returns an immutable map of all plotted functions keyed by label, which iterates in label order.
+     * This method does not copy.
+     */
+    public Map<String, DoubleUnaryOperator> getPlottedOperators() {
+        return functions;
+    }
+
+    static DoubleUnaryOperator adapt(Function<Double, Double> f) {
+        requireNonNull(f);
+        return new BoxedFunction(f);
+    }
+
+    private static Function<Double, Double> unadapt(DoubleUnaryOperator f) {
+        if (f instanceof BoxedFunction) return ((BoxedFunction) f).f;
+        return f::applyAsDouble;
+    }
+
+    private static final class BoxedFunction implements DoubleUnaryOperator {
+        private final Function<Double, Double> f;
+
+        BoxedFunction(Function<Double, Double> f) {
+            this.f = f;
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            final Double y = f.apply(x);
+            return y == null ? Double.NaN : y;
+        }
+    }
+
+    // Copy-on-write and sorted by name, like the functions
+    private volatile SortedMap<String, PointSeries> series = Collections.emptySortedMap();
+
+    /**
+     * Creates a series which holds at most the given number of points. Once it is full, appending a point
+     * evicts the oldest one. If a series with the given name already exists it is replaced.
+     */
+    public PointSeries createSeries(String name, int capacity) {
+        return createSeries(name, capacity, Double.POSITIVE_INFINITY);
     }
 
-    private final Set<Runnable> changeListeners = new HashSet<>();
+    /**
+     * Creates a series which holds at most the given number of points, and only those points whose x coordinate
+     * is within {@code xWindow} of the x coordinate of the most recently appended point. This suits series whose
+     * x coordinate is a time, which only ever increases. If a series with the given name already exists it
+     * is replaced.
+     */
+    public PointSeries createSeries(String name, int capacity, double xWindow) {
+        requireNonNull(name);
+        final var created = new PointSeries(this, name, capacity, xWindow);
+        synchronized (mutationLock) {
+            final var newSeries = new TreeMap<>(series);
+            newSeries.put(name, created);
+            series = Collections.unmodifiableSortedMap(newSeries);
+            modificationCount.incrementAndGet();
+        }
+        fireChange(0, Set.of(), Set.of(name));
+        return created;
+    }
+
+    public void removeSeries(String name) {
+        requireNonNull(name);
+        synchronized (mutationLock) {
+            if (!series.containsKey(name)) return;
+            final var newSeries = new TreeMap<>(series);
+            newSeries.remove(name);
+            series = Collections.unmodifiableSortedMap(newSeries);
+            modificationCount.incrementAndGet();
+        }
+        fireChange(0, Set.of(), Set.of(name));
+    }
+
+    /**
+     * Returns an immutable map of all series keyed by name, which iterates in name order. This method does not copy.
+     */
+    public Map<String, PointSeries> getSeries() {
+        return series;
+    }
+
+    /**
+     * Invoked by a series after its points have changed.
+     */
+    void fireSeriesChange(PointSeries changed) {
+        // A series which has been removed or replaced is no longer drawn.
+        if (series.get(changed.getName()) != changed) return;
+        modificationCount.incrementAndGet();
+        fireChange(0, Set.of(), Set.of(changed.getName()));
+    }
+
+    // Counts every modification other than plotted points, which are counted by the store itself. Both counts only
+    // ever increase, so their sum versions the state of the plane.
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    /**
+     * Returns an immutable view of the plotted points and functions as they are at this moment. Taking a snapshot
+     * does not copy anything. Points are never modified once plotted, so the snapshot shares the plane's
+     * point storage and merely remembers how many points it includes.
+     *
+     * Every snapshot carries a version, which increases whenever the plane is modified. Two snapshots of the same
+     * plane with the same version hold the same points and functions, so a reader which has already processed
+     * a version can skip it. Series are not frozen by a snapshot, but appending to a series increases the version.
+     */
+    public PlaneSnapshot snapshot() {
+        synchronized (mutationLock) {
+            drainStagedPoints();
+            // Holding the store's lock prevents the size, arrays and bounds from being read half-way through an append.
+            synchronized (points) {
+                return new PlaneSnapshot(this, modificationCount.get() + points.size(), points.xs(), points.ys(),
+                        points.size(), points.bounds(), functions, series);
+            }
+        }
+    }
+
+    /**
+     * Applies all modifications made to the given {@link PlaneTransaction} at once, and then notifies
+     * the change listeners exactly once with a single {@link PlaneChangeEvent} describing every change.
+     * Use this method when plotting many points or replacing many functions at a high rate, for example
+     * within a training loop, so that a viewport redraws once per batch instead of once per modification.
+     *
+     * If {@code modifications} throws, none of the modifications are applied.
+     */
+    public void update(Consumer<PlaneTransaction> modifications) {
+        requireNonNull(modifications);
+        final var transaction = new PlaneTransaction();
+        try {
+            modifications.accept(transaction);
+        } finally {
+            transaction.close();
+        }
+
+        synchronized (mutationLock) {
+            if (!transaction.functions.isEmpty()) {
+                final var newFunctions = new TreeMap<>(functions);
+                newFunctions.putAll(transaction.functions);
+                functions = Collections.unmodifiableSortedMap(newFunctions);
+                modificationCount.incrementAndGet();
+            }
+            drainStagedPoints();
+            points.addAll(transaction.points);
+        }
+        fireChange(transaction.points.size(), transaction.functions.keySet());
+    }
+
+    // Copy-on-write, so that listeners may be added and removed while other threads are notifying them
+    private volatile Set<PlaneChangeListener> changeListeners = Set.of();
+    public void addChangeListener(PlaneChangeListener listener) {
+        requireNonNull(listener);
+        synchronized (mutationLock) {
+            final var newListeners = new HashSet<>(changeListeners);
+            newListeners.add(listener);
+            changeListeners = Set.copyOf(newListeners);
+        }
+    }
+    public void removeChangeListener(PlaneChangeListener listener) {
+        synchronized (mutationLock) {
+            final var newListeners = new HashSet<>(changeListeners);
+            newListeners.remove(listener);
+            changeListeners = Set.copyOf(newListeners);
+        }
+    }
+
+    /**
+     * Registers a listener which is invoked after every modification, regardless of what has changed.
+     * Prefer {@link #addChangeListener(PlaneChangeListener)}, which describes the modification.
+     */
     public void addChangeListener(Runnable onChange) {
-        changeListeners.add(onChange);
+        addChangeListener(new RunnableChangeListener(onChange));
     }
     public void removeChangeListener(Runnable onChange) {
-        changeListeners.remove(onChange);
+        removeChangeListener(new RunnableChangeListener(onChange));
+    }
+
+    private void fireChange(int addedPointCount, Set<String> changedFunctions) {
+        fireChange(addedPointCount, changedFunctions, Set.of());
+    }
+
+    private void fireChange(int addedPointCount, Set<String> changedFunctions, Set<String> changedSeries) {
+        if (addedPointCount == 0 && changedFunctions.isEmpty() && changedSeries.isEmpty()) return;
+        final var jfrEvent = new PlaneModifiedEvent();
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.planeTitle = title;
+            jfrEvent.addedPointCount = addedPointCount;
+            jfrEvent.changedFunctions = String.join(", ", changedFunctions);
+            jfrEvent.changedSeries = String.join(", ", changedSeries);
+            jfrEvent.commit();
+        }
+        final Set<PlaneChangeListener> listeners = changeListeners;
+        if (listeners.isEmpty()) return;
+        final var event = new PlaneChangeEvent(this, addedPointCount, changedFunctions, changedSeries);
+        listeners.forEach(listener -> listener.onPlaneChanged(event));
+    }
+
+    private static final class RunnableChangeListener implements PlaneChangeListener {
+        private final Runnable onChange;
+
+        RunnableChangeListener(Runnable onChange) {
+            this.onChange = requireNonNull(onChange);
+        }
+
+        @Override
+        public void onPlaneChanged(PlaneChangeEvent event) {
+            onChange.run();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RunnableChangeListener && ((RunnableChangeListener) o).onChange.equals(onChange);
+        }
+
+        @Override
+        public int hashCode() {
+            return onChange.hashCode();
+        }
     }
 
     public Optional<String> getTitle() {
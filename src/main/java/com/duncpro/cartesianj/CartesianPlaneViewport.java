@@ -2,7 +2,8 @@ package com.duncpro.cartesianj;
 
 import com.duncpro.cartesianj.awt.AwtPixelConverter;
 
-import java.util.Comparator;
+import java.util.Optional;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 public interface CartesianPlaneViewport {
@@ -14,8 +15,21 @@ public interface CartesianPlaneViewport {
 
     double getQuantitativeStepSize(Axis axis);
 
+    /**
+     * The offset along the given direction, rounded to the nearest pixel.
+     * @see #getPreciseOffset(Direction)
+     */
     int getOffset(Direction direction);
 
+    /**
+     * The offset along the given direction with sub-pixel precision. Panning with the mouse moves the viewport by
+     * fractions of a pixel, which accumulate instead of being lost to rounding. Viewports which do not track
+     * fractions of a pixel return {@link #getOffset(Direction)}.
+     */
+    default double getPreciseOffset(Direction direction) {
+        return getOffset(direction);
+    }
+
     /**
      * This function the given dimension of the viewport by the given number of pixels.
      * For example, when setting a horizontal viewport offset of 2, the y axis will appear 2 pixels closer
@@ -24,6 +38,15 @@ public interface CartesianPlaneViewport {
      */
     void setOffset(Direction dimension, int newOffset);
 
+    /**
+     * Sets the offset along the given direction with sub-pixel precision. Viewports which do not track fractions
+     * of a pixel round the offset to the nearest pixel.
+     * @see #setOffset(Direction, int)
+     */
+    default void setOffset(Direction dimension, double newOffset) {
+        setOffset(dimension, (int) Math.round(newOffset));
+    }
+
     AwtPixelConverter getConverter();
 
     int getWidth();
@@ -82,37 +105,83 @@ public interface CartesianPlaneViewport {
         incrementVisualStepSize(Axis.Y);
     }
 
+    /**
+     * Moves the contents of the viewport by the given number of pixels. Positive distances move the contents
+     * to the right and down, like dragging them with the mouse.
+     */
+    default void pan(double dx, double dy) {
+        setOffset(Direction.HORIZONTAL, getPreciseOffset(Direction.HORIZONTAL) + dx);
+        setOffset(Direction.VERTICAL, getPreciseOffset(Direction.VERTICAL) + dy);
+    }
+
+    /**
+     * Magnifies the contents of the viewport by the given factor, keeping the point of the plane which lies under the
+     * given pixel position in place. Factors greater than one zoom in, and factors less than one zoom out.
+     * The visual step sizes are left untouched, so the quantitative step sizes are divided by the factor.
+     */
+    default void zoom(double factor, double anchorX, double anchorY) {
+        if (!(factor > 0) || Double.isInfinite(factor)) throw new IllegalArgumentException();
+        final double originX = (getWidth() / 2) + getPreciseOffset(Direction.HORIZONTAL);
+        final double originY = (getHeight() / 2) + getPreciseOffset(Direction.VERTICAL);
+        setQuantitativeStepSize(Axis.X, getQuantitativeStepSize(Axis.X) / factor);
+        setQuantitativeStepSize(Axis.Y, getQuantitativeStepSize(Axis.Y) / factor);
+        setOffset(Direction.HORIZONTAL, anchorX - ((anchorX - originX) * factor) - (getWidth() / 2));
+        setOffset(Direction.VERTICAL, anchorY - ((anchorY - originY) * factor) - (getHeight() / 2));
+    }
+
+    /**
+     * Plots the given point, and refits the viewport if the point would not be visible.
+     * @see #fitDataIfNeeded()
+     */
     default void plot(Point point) {
         getPlane().plot(point);
-        fitData();
+        fitDataIfNeeded();
     }
 
     default void plot(String name, Function<Double, Double> f) {
         getPlane().plot(name, f);
     }
 
+    default void plotOperator(String name, DoubleUnaryOperator f) {
+        getPlane().plotOperator(name, f);
+    }
+
+    /**
+     * Centers the origin and increases the quantitative step sizes until every plotted point is visible.
+     * Step sizes are never decreased. The plane's bounds are maintained as points are plotted,
+     * so this method runs in constant time regardless of the number of plotted points.
+     */
     default void fitData() {
         setOffset(Direction.HORIZONTAL, 0);
         setOffset(Direction.VERTICAL, 0);
 
+        final Optional<Bounds> bounds = getPlane().getBounds();
+        if (bounds.isEmpty()) return;
+
+        // With the origin centered, each quadrant must reach as far as the point furthest from either axis.
         int xStepsPerQuadrant = getWidth() / 2 / getVisualStepSize(Axis.X);
-        getPlane().getPlottedPoints().stream()
-                .max(Comparator.comparing(Point::getX))
-                .map(Point::getX)
-                .map(Math::abs)
-                .map(maxX -> maxX / xStepsPerQuadrant)
-                .map(Math::ceil)
-                .map(newStepSize -> Math.max(newStepSize, getQuantitativeStepSize(Axis.X)))
-                .ifPresent(stepSize -> setQuantitativeStepSize(Axis.X, stepSize));
+        double newXStepSize = Math.ceil(bounds.get().getMaxMagnitude(Axis.X) / xStepsPerQuadrant);
+        setQuantitativeStepSize(Axis.X, Math.max(newXStepSize, getQuantitativeStepSize(Axis.X)));
 
         int yStepsPerQuadrant = getHeight() / 2 / getVisualStepSize(Axis.Y);
-        getPlane().getPlottedPoints().stream()
-                .max(Comparator.comparing(Point::getY))
-                .map(Point::getY)
-                .map(Math::abs)
-                .map(maxY -> maxY / yStepsPerQuadrant)
-                .map(Math::ceil)
-                .map(newStepSize -> Math.max(newStepSize, getQuantitativeStepSize(Axis.Y)))
-                .ifPresent(stepSize -> setQuantitativeStepSize(Axis.Y, stepSize));
+        double newYStepSize = Math.ceil(bounds.get().getMaxMagnitude(Axis.Y) / yStepsPerQuadrant);
+        setQuantitativeStepSize(Axis.Y, Math.max(newYStepSize, getQuantitativeStepSize(Axis.Y)));
+    }
+
+    /**
+     * Invokes {@link #fitData()} only if some plotted point lies outside the visible part of the plane.
+     * Unlike {@link #fitData()} this leaves the offsets and step sizes untouched while every point is visible,
+     * so it is suitable to be invoked after every plotted point.
+     */
+    default void fitDataIfNeeded() {
+        final Optional<Bounds> bounds = getPlane().getBounds();
+        // Nothing is visible in a viewport which has not been laid out yet.
+        if (bounds.isEmpty() || getWidth() <= 0 || getHeight() <= 0) return;
+        final AwtPixelConverter converter = getConverter();
+        final boolean visible = bounds.get().getMin(Axis.X) >= converter.getVisibleMin(Axis.X)
+                && bounds.get().getMax(Axis.X) <= converter.getVisibleMax(Axis.X)
+                && bounds.get().getMin(Axis.Y) >= converter.getVisibleMin(Axis.Y)
+                && bounds.get().getMax(Axis.Y) <= converter.getVisibleMax(Axis.Y);
+        if (!visible) fitData();
     }
 }
@@ -0,0 +1,407 @@
+package com.duncpro.cartesianj;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Plots the rows of a CSV file of numbers as points on a plane, without reading the file onto the heap.
+ *
+ * The file is memory-mapped in segments, and the selected columns of each row are parsed straight from the mapped
+ * bytes, without creating a {@link String} or {@link Point} per value. Parsed points are plotted in chunks of
+ * {@link #setChunkSize(int)} points, so the plane fills in while the file is being read, and listeners of the plane
+ * are notified once per chunk rather than once per row.
+ *
+ * Fields are separated by {@link #setDelimiter(char)} and rows by line feeds. Whitespace and carriage returns
+ * around a value are ignored, as are blank lines, and columns which were not selected. Quoted fields are not supported.
+ * Values are parsed like {@link Double#parseDouble(String)}, so {@code NaN} and {@code Infinity} are accepted.
+ *
+ * If {@link #setParsingPool(ForkJoinPool)} is given a pool, the file is split into segments on line boundaries, and
+ * the segments are parsed concurrently. Points are then plotted in no particular order.
+ */
+public final class CsvPointReader {
+    /**
+     * The maximum number of bytes which are mapped and parsed as a unit.
+     */
+    private static final long SEGMENT_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * The number of bytes which are copied out of a mapped segment and parsed at once.
+     */
+    private static final int WINDOW_BYTES = 256 * 1024;
+
+    // Powers of ten which can be represented exactly, used to parse short decimals without rounding error
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Mantissas below this bound are exactly representable as doubles
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * Notified after each chunk of points has been plotted. If the file is parsed concurrently, this listener
+     * may be invoked concurrently from the threads of the parsing pool.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param bytesRead the number of bytes of the file which have been parsed so far
+         * @param totalBytes the size of the file
+         * @param pointsRead the number of points which have been plotted so far
+         */
+        void onProgress(long bytesRead, long totalBytes, long pointsRead);
+    }
+
+    private final Path file;
+    private int xColumn = 0;
+    private int yColumn = 1;
+    private int skippedLines = 0;
+    private byte delimiter = ',';
+    private int chunkSize = 64 * 1024;
+    private ForkJoinPool parsingPool = null;
+    private ProgressListener progressListener = (bytesRead, totalBytes, pointsRead) -> {};
+
+    public CsvPointReader(Path file) {
+        this.file = requireNonNull(file);
+    }
+
+    /**
+     * Selects the zero-based columns which hold the x and y coordinates. By default these are the first and second.
+     */
+    public void setColumns(int xColumn, int yColumn) {
+        if (xColumn < 0 || yColumn < 0) throw new IllegalArgumentException();
+        this.xColumn = xColumn;
+        this.yColumn = yColumn;
+    }
+
+    /**
+     * Sets the number of lines at the beginning of the file which are skipped, for instance a header row.
+     */
+    public void setSkippedLines(int lines) {
+        if (lines < 0) throw new IllegalArgumentException();
+        this.skippedLines = lines;
+    }
+
+    /**
+     * Sets the character which separates fields. It must be an ASCII character. The default is a comma.
+     */
+    public void setDelimiter(char delimiter) {
+        if (delimiter > 127 || delimiter == '\n') throw new IllegalArgumentException();
+        this.delimiter = (byte) delimiter;
+    }
+
+    /**
+     * Sets the number of points which are parsed before they are plotted.
+     */
+    public void setChunkSize(int points) {
+        if (points <= 0) throw new IllegalArgumentException();
+        this.chunkSize = points;
+    }
+
+    /**
+     * Enables concurrent parsing on the given pool. Pass {@code null} to parse the file on the calling thread,
+     * which is the default.
+     */
+    public void setParsingPool(ForkJoinPool pool) {
+        this.parsingPool = pool;
+    }
+
+    public void setProgressListener(ProgressListener listener) {
+        this.progressListener = requireNonNull(listener);
+    }
+
+    /**
+     * Plots every row of the file on the given plane, and returns once the whole file has been plotted.
+     * @return the number of points plotted
+     * @throws NumberFormatException if a selected field is not a number, or a row lacks a selected column.
+     * The points of the chunks which were completed beforehand remain plotted.
+     */
+    public long readInto(CartesianPlane plane) throws IOException {
+        requireNonNull(plane);
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long totalBytes = channel.size();
+            final long dataStart = skipLines(channel, 0, skippedLines);
+            final List<Segment> segments = split(channel, dataStart, totalBytes);
+            final var progress = new Progress(totalBytes, dataStart);
+
+            if (parsingPool == null) {
+                for (Segment segment : segments) segment.parseInto(plane, channel, progress);
+                return progress.points.get();
+            }
+
+            final var tasks = new ArrayList<ForkJoinTask<?>>(segments.size());
+            for (Segment segment : segments) {
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    try {
+                        segment.parseInto(plane, channel, progress);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            try {
+                parsingPool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return progress.points.get();
+        }
+    }
+
+    private final class Progress {
+        final long totalBytes;
+        final AtomicLong bytes;
+        final AtomicLong points = new AtomicLong();
+
+        Progress(long totalBytes, long skippedBytes) {
+            this.totalBytes = totalBytes;
+            this.bytes = new AtomicLong(skippedBytes);
+        }
+
+        void report(long parsedBytes, int plottedPoints) {
+            final long bytesRead = bytes.addAndGet(parsedBytes);
+            final long pointsRead = points.addAndGet(plottedPoints);
+            progressListener.onProgress(bytesRead, totalBytes, pointsRead);
+        }
+    }
+
+    /**
+     * Divides the given range of the file into segments which begin at the beginning of a line. There are enough
+     * segments to occupy every thread of the parsing pool, but no segment is much larger than {@link #SEGMENT_BYTES}.
+     */
+    private List<Segment> split(FileChannel channel, long start, long end) throws IOException {
+        final int parallelism = parsingPool == null ? 1 : parsingPool.getParallelism() * 4;
+        final long segmentBytes = Math.max(1, Math.min(SEGMENT_BYTES, (end - start) / parallelism));
+        final var segments = new ArrayList<Segment>();
+        long segmentStart = start;
+        while (segmentStart < end) {
+            final long segmentEnd = segmentStart + segmentBytes >= end ? end
+                    : skipLines(channel, segmentStart + segmentBytes - 1, 1);
+            segments.add(new Segment(segmentStart, segmentEnd));
+            segmentStart = segmentEnd;
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the position just past the given number of line feeds, starting at the given position,
+     * or the end of the file if it contains fewer lines.
+     */
+    private static long skipLines(FileChannel channel, long position, int lines) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+        while (lines > 0) {
+            buffer.clear();
+            final int read = channel.read(buffer, position);
+            if (read < 0) return channel.size();
+            for (int i = 0; i < read && lines > 0; i++) {
+                position++;
+                if (buffer.get(i) == '\n') lines--;
+            }
+        }
+        return position;
+    }
+
+    private final class Segment {
+        final long start;
+        final long end;
+
+        // The points which have been parsed but not plotted yet
+        double[] xs;
+        double[] ys;
+        int count = 0;
+
+        // The number of bytes of this segment which have been reported to the progress listener
+        long reportedBytes = 0;
+
+        Segment(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Maps the segment and parses it window by window. Each window is copied out of the mapping in bulk and
+         * parsed from a heap array, which is considerably faster than reading the mapping byte by byte. A line which
+         * continues beyond the end of a window is carried over to the next one.
+         */
+        void parseInto(CartesianPlane plane, FileChannel channel, Progress progress) throws IOException {
+            final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            final int length = mapped.limit();
+            xs = new double[chunkSize];
+            ys = new double[chunkSize];
+            byte[] window = new byte[Math.max(1, Math.min(WINDOW_BYTES, length))];
+            int windowStart = 0;
+            int filled = 0;
+            while (windowStart + filled < length) {
+                final int read = Math.min(window.length - filled, length - (windowStart + filled));
+                mapped.get(windowStart + filled, window, filled, read);
+                filled += read;
+                final boolean last = windowStart + filled == length;
+                int parsed = filled;
+                if (!last) {
+                    while (parsed > 0 && window[parsed - 1] != '\n') parsed--;
+                    if (parsed == 0) {
+                        window = Arrays.copyOf(window, window.length * 2);
+                        continue;
+                    }
+                }
+                parseLines(plane, progress, window, parsed, start + windowStart);
+                System.arraycopy(window, parsed, window, 0, filled - parsed);
+                windowStart += parsed;
+                filled -= parsed;
+            }
+            if (count > 0) plane.plot(Arrays.copyOf(xs, count), Arrays.copyOf(ys, count));
+            progress.report(length - reportedBytes, count);
+        }
+
+        /**
+         * Parses the lines within the first {@code limit} bytes of the given window, which begins at the given
+         * position within the file.
+         */
+        private void parseLines(CartesianPlane plane, Progress progress, byte[] bytes, int limit, long offset) {
+            final int lastColumn = Math.max(xColumn, yColumn);
+            int position = 0;
+            while (position < limit) {
+                final int lineStart = position;
+                double x = 0;
+                double y = 0;
+                int column = 0;
+                int selectedColumns = 0;
+                boolean blank = true;
+                while (position < limit) {
+                    final int fieldStart = position;
+                    byte b = 0;
+                    while (position < limit && (b = bytes[position]) != delimiter && b != '\n') position++;
+                    if (!isBlank(bytes, fieldStart, position)) {
+                        blank = false;
+                        if (column == xColumn) {
+                            x = parse(bytes, fieldStart, position, offset);
+                            selectedColumns++;
+                        }
+                        if (column == yColumn) {
+                            y = parse(bytes, fieldStart, position, offset);
+                            selectedColumns++;
+                        }
+                    }
+                    column++;
+                    if (position == limit || b == '\n' || column > lastColumn) break;
+                    position++;
+                }
+                // Skip the unselected columns at the end of the line, and the line feed itself
+                while (position < limit && bytes[position] != '\n') position++;
+                if (position < limit) position++;
+
+                if (blank && column == 1) continue;
+                if (selectedColumns < 2) {
+                    throw new NumberFormatException("The line at byte " + (offset + lineStart)
+                            + " lacks a value in a selected column.");
+                }
+                xs[count] = x;
+                ys[count] = y;
+                if (++count == chunkSize) {
+                    plane.plot(xs, ys);
+                    final long parsedBytes = (offset - start) + position;
+                    progress.report(parsedBytes - reportedBytes, count);
+                    reportedBytes = parsedBytes;
+                    count = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the field between the given indices of the given window, which begins at the given position within
+     * the file.
+     */
+    private static double parse(byte[] bytes, int from, int to, long offset) {
+        while (from < to && isWhitespace(bytes[from])) from++;
+        while (to > from && isWhitespace(bytes[to - 1])) to--;
+        final double value = parseShortDecimal(bytes, from, to);
+        if (!Double.isNaN(value)) return value;
+
+        // Values which cannot be parsed exactly by the fast path, or which are not plain decimals.
+        try {
+            return Double.parseDouble(new String(bytes, from, to - from, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            throw new NumberFormatException("The value at byte " + (offset + from) + " is not a number: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses a decimal with at most 15 significant digits and a small exponent, like {@code -12.75} or
+     * {@code 3e-4}. The digits are accumulated into an integer which is then scaled by an exact power of ten,
+     * so the result is correctly rounded.
+     * @return the value, or NaN if the field has any other form
+     */
+    private static double parseShortDecimal(byte[] bytes, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) negative = bytes[i++] == '-';
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean anyDigits = false;
+        byte b;
+        while (i < to && (b = bytes[i]) >= '0' && b <= '9') {
+            mantissa = (mantissa * 10) + (b - '0');
+            if (mantissa != 0) significantDigits++;
+            anyDigits = true;
+            i++;
+        }
+        if (i < to && bytes[i] == '.') {
+            i++;
+            while (i < to && (b = bytes[i]) >= '0' && b <= '9') {
+                mantissa = (mantissa * 10) + (b - '0');
+                if (mantissa != 0) significantDigits++;
+                exponent--;
+                anyDigits = true;
+                i++;
+            }
+        }
+        if (!anyDigits || significantDigits > 15) return Double.NaN;
+        if (i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+')) negativeExponent = bytes[i++] == '-';
+            int explicitExponent = 0;
+            final int exponentStart = i;
+            while (i < to && (b = bytes[i]) >= '0' && b <= '9' && i - exponentStart < 4) {
+                explicitExponent = (explicitExponent * 10) + (b - '0');
+                i++;
+            }
+            if (i == exponentStart) return Double.NaN;
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i != to || mantissa >= MAX_EXACT_MANTISSA) return Double.NaN;
+        if (exponent < -22 || exponent > 22) return Double.NaN;
+        final double magnitude = exponent >= 0 ? mantissa * EXACT_POWERS_OF_TEN[exponent]
+                : mantissa / EXACT_POWERS_OF_TEN[-exponent];
+        return negative ? -magnitude : magnitude;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static boolean isBlank(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isWhitespace(bytes[i])) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,96 @@
+package com.duncpro.cartesianj;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A weighted sum of basis functions, {@code weights[0] * basis[0](x) + weights[1] * basis[1](x) + ...}, such as a
+ * sum of exponentials or sinusoids. A constant term is the basis function {@code x -> 1}.
+ *
+ * When sampled in bulk, each basis function is sampled across all x values in turn, in bulk if it is a
+ * {@link BatchFunction} itself, and its weighted values are then added to the sum in a loop without calls or
+ * branches, which the JIT compiler vectorizes. The terms are added in the same order in either case, so both produce
+ * identical results. Instances are immutable, but only thread-safe if their basis functions are.
+ */
+public final class LinearCombination implements BatchFunction {
+    private final double[] weights;
+    private final DoubleUnaryOperator[] basis;
+
+    /**
+     * Creates the sum of the given basis functions, each scaled by the weight at the same index.
+     */
+    public LinearCombination(double[] weights, DoubleUnaryOperator[] basis) {
+        requireNonNull(weights);
+        requireNonNull(basis);
+        if (weights.length != basis.length) throw new IllegalArgumentException();
+        for (DoubleUnaryOperator f : basis) requireNonNull(f);
+        this.weights = weights.clone();
+        this.basis = basis.clone();
+    }
+
+    public int getTermCount() {
+        return weights.length;
+    }
+
+    public double getWeight(int term) {
+        return weights[term];
+    }
+
+    public DoubleUnaryOperator getBasisFunction(int term) {
+        return basis[term];
+    }
+
+    @Override
+    public double applyAsDouble(double x) {
+        if (weights.length == 0) return 0;
+        double y = weights[0] * basis[0].applyAsDouble(x);
+        for (int i = 1; i < weights.length; i++) {
+            y += weights[i] * basis[i].applyAsDouble(x);
+        }
+        return y;
+    }
+
+    @Override
+    public void applyAsDouble(double[] xs, double[] ys, int offset, int length) {
+        // Every basis function reads every x after the sum has been written, so the arrays must be distinct.
+        if (xs == ys) {
+            BatchFunction.super.applyAsDouble(xs, ys, offset, length);
+            return;
+        }
+        final int end = offset + length;
+        if (weights.length == 0) {
+            Arrays.fill(ys, offset, end, 0);
+            return;
+        }
+        evaluate(basis[0], xs, ys, offset, length);
+        final double firstWeight = weights[0];
+        for (int i = offset; i < end; i++) {
+            ys[i] = firstWeight * ys[i];
+        }
+        if (weights.length == 1) return;
+
+        // Allocated per call rather than retained, since a function may be sampled by many threads at once, and its
+        // basis functions may be linear combinations themselves. A call samples a whole range of x values, so the
+        // allocation is small in comparison.
+        final double[] terms = new double[end];
+        for (int term = 1; term < weights.length; term++) {
+            evaluate(basis[term], xs, terms, offset, length);
+            final double weight = weights[term];
+            for (int i = offset; i < end; i++) {
+                ys[i] += weight * terms[i];
+            }
+        }
+    }
+
+    private static void evaluate(DoubleUnaryOperator f, double[] xs, double[] ys, int offset, int length) {
+        if (f instanceof BatchFunction) {
+            ((BatchFunction) f).applyAsDouble(xs, ys, offset, length);
+        } else {
+            for (int i = offset; i < offset + length; i++) {
+                ys[i] = f.applyAsDouble(xs[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.duncpro.cartesianj;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A function which interpolates linearly between a sequence of knots. It is undefined, that is NaN, to the left of
+ * the first knot and to the right of the last one.
+ *
+ * Evaluating a single x value searches for its segment, which costs time logarithmic in the number of knots.
+ * When sampled in bulk, the x values are usually ascending, so the segment of each x value is found by advancing
+ * from the segment of the previous one, and sampling costs time linear in the number of samples plus the number of
+ * knots. Instances are immutable.
+ */
+public final class PiecewiseLinearFunction implements BatchFunction {
+    private final double[] knotXs;
+    private final double[] knotYs;
+
+    /**
+     * Creates a function through the knots {@code (xs[i], ys[i])}. The x coordinates must be finite and strictly
+     * ascending, and there must be at least one knot.
+     */
+    public PiecewiseLinearFunction(double[] xs, double[] ys) {
+        requireNonNull(xs);
+        requireNonNull(ys);
+        if (xs.length != ys.length || xs.length == 0) throw new IllegalArgumentException();
+        for (int i = 0; i < xs.length; i++) {
+            if (!Double.isFinite(xs[i]) || (i > 0 && !(xs[i] > xs[i - 1]))) {
+                throw new IllegalArgumentException("Knots must be finite and strictly ascending");
+            }
+        }
+        this.knotXs = xs.clone();
+        this.knotYs = ys.clone();
+    }
+
+    public int getKnotCount() {
+        return knotXs.length;
+    }
+
+    @Override
+    public double applyAsDouble(double x) {
+        if (!(x >= knotXs[0] && x <= knotXs[knotXs.length - 1])) return Double.NaN;
+        return interpolate(segmentOf(x), x);
+    }
+
+    @Override
+    public void applyAsDouble(double[] xs, double[] ys, int offset, int length) {
+        int segment = 0;
+        for (int i = offset; i < offset + length; i++) {
+            final double x = xs[i];
+            if (!(x >= knotXs[0] && x <= knotXs[knotXs.length - 1])) {
+                ys[i] = Double.NaN;
+                continue;
+            }
+            if (x < knotXs[segment]) {
+                segment = segmentOf(x);
+            } else {
+                // Advances past a knot the x value lies on, so that it is interpolated exactly as by segmentOf
+                while (segment < knotXs.length - 2 && x >= knotXs[segment + 1]) segment++;
+            }
+            ys[i] = interpolate(segment, x);
+        }
+    }
+
+    /**
+     * The index of the knot at the left end of the segment which contains the given x value, which must lie within
+     * the first and the last knot.
+     */
+    private int segmentOf(double x) {
+        final int found = Arrays.binarySearch(knotXs, x);
+        final int segment = found >= 0 ? found : -found - 2;
+        // The last knot is the right end of the last segment
+        return Math.min(segment, Math.max(0, knotXs.length - 2));
+    }
+
+    private double interpolate(int segment, double x) {
+        if (knotXs.length == 1) return knotYs[0];
+        final double x0 = knotXs[segment];
+        final double x1 = knotXs[segment + 1];
+        final double t = (x - x0) / (x1 - x0);
+        return knotYs[segment] + (t * (knotYs[segment + 1] - knotYs[segment]));
+    }
+}
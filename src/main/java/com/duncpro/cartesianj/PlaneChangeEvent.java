@@ -0,0 +1,66 @@
+package com.duncpro.cartesianj;
+
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Describes a single modification of a {@link CartesianPlane}. A plain call to one of the {@code plot} methods
+ * produces one event. A {@link CartesianPlane#update(java.util.function.Consumer)} transaction produces
+ * exactly one event describing all changes made within it.
+ */
+public final class PlaneChangeEvent {
+    private final CartesianPlane plane;
+    private final int addedPointCount;
+    private final Set<String> changedFunctions;
+    private final Set<String> changedSeries;
+
+    PlaneChangeEvent(CartesianPlane plane, int addedPointCount, Set<String> changedFunctions,
+                     Set<String> changedSeries) {
+        this.plane = requireNonNull(plane);
+        this.addedPointCount = addedPointCount;
+        this.changedFunctions = Set.copyOf(changedFunctions);
+        this.changedSeries = Set.copyOf(changedSeries);
+    }
+
+    public CartesianPlane getPlane() {
+        return plane;
+    }
+
+    /**
+     * The number of points which were appended to the plane.
+     */
+    public int getAddedPointCount() {
+        return addedPointCount;
+    }
+
+    /**
+     * The labels of all functions which were plotted or replaced.
+     */
+    public Set<String> getChangedFunctions() {
+        return changedFunctions;
+    }
+
+    /**
+     * The names of all series which were created, removed, appended to or cleared.
+     */
+    public Set<String> getChangedSeries() {
+        return changedSeries;
+    }
+
+    public boolean hasPointChanges() {
+        return addedPointCount > 0;
+    }
+
+    public boolean hasFunctionChanges() {
+        return !changedFunctions.isEmpty();
+    }
+
+    public boolean hasSeriesChanges() {
+        return !changedSeries.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return !hasPointChanges() && !hasFunctionChanges() && !hasSeriesChanges();
+    }
+}
@@ -0,0 +1,10 @@
+package com.duncpro.cartesianj;
+
+/**
+ * Invoked by {@link CartesianPlane} after its contents have been modified.
+ * Listeners are invoked synchronously on the thread which performed the modification.
+ */
+@FunctionalInterface
+public interface PlaneChangeListener {
+    void onPlaneChanged(PlaneChangeEvent event);
+}
@@ -0,0 +1,32 @@
+package com.duncpro.cartesianj;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded by Java Flight Recorder for every modification of a plane. Planes may be modified once per plotted
+ * point, so this event is disabled by default, and must be enabled explicitly in the recording's settings.
+ */
+@Name("com.duncpro.cartesianj.PlaneModified")
+@Label("Plane Modified")
+@Category("CartesianJ")
+@Description("Points, functions or series of a Cartesian plane were modified")
+@Enabled(false)
+@StackTrace(false)
+final class PlaneModifiedEvent extends jdk.jfr.Event {
+    @Label("Plane Title")
+    String planeTitle;
+
+    @Label("Added Points")
+    int addedPointCount;
+
+    @Label("Changed Functions")
+    String changedFunctions;
+
+    @Label("Changed Series")
+    String changedSeries;
+}
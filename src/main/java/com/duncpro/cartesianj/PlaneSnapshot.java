@@ -0,0 +1,104 @@
+package com.duncpro.cartesianj;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.function.DoubleUnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable view of the points and functions of a {@link CartesianPlane} at one moment, as returned by
+ * {@link CartesianPlane#snapshot()}. Points plotted and functions replaced after the snapshot was taken are not
+ * visible through it. Instances are thread-safe.
+ */
+public final class PlaneSnapshot {
+    private final CartesianPlane plane;
+    private final long version;
+
+    // Shared with the plane's point storage. Only the first pointCount elements belong to this snapshot.
+    private final double[] xs;
+    private final double[] ys;
+    private final int pointCount;
+    private final Bounds pointBounds;
+
+    private final SortedMap<String, DoubleUnaryOperator> functions;
+    private final SortedMap<String, PointSeries> series;
+
+    PlaneSnapshot(CartesianPlane plane, long version, double[] xs, double[] ys, int pointCount, Bounds pointBounds,
+                  SortedMap<String, DoubleUnaryOperator> functions, SortedMap<String, PointSeries> series) {
+        this.plane = requireNonNull(plane);
+        this.version = version;
+        this.xs = requireNonNull(xs);
+        this.ys = requireNonNull(ys);
+        this.pointCount = pointCount;
+        this.pointBounds = pointBounds;
+        this.functions = requireNonNull(functions);
+        this.series = requireNonNull(series);
+    }
+
+    public CartesianPlane getPlane() {
+        return plane;
+    }
+
+    /**
+     * Increases whenever the plane is modified.
+     * @see CartesianPlane#snapshot()
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public double getX(int index) {
+        Objects.checkIndex(index, pointCount);
+        return xs[index];
+    }
+
+    public double getY(int index) {
+        Objects.checkIndex(index, pointCount);
+        return ys[index];
+    }
+
+    public void forEachPoint(PointConsumer consumer) {
+        forEachPoint(0, pointCount, consumer);
+    }
+
+    /**
+     * Passes the points at indices {@code fromIndex} (inclusive) through {@code toIndex} (exclusive) to the given
+     * consumer, in the order they were plotted.
+     */
+    public void forEachPoint(int fromIndex, int toIndex, PointConsumer consumer) {
+        requireNonNull(consumer);
+        Objects.checkFromToIndex(fromIndex, toIndex, pointCount);
+        for (int i = fromIndex; i < toIndex; i++) {
+            consumer.accept(xs[i], ys[i]);
+        }
+    }
+
+    /**
+     * The bounds of the finite points within this snapshot. Unlike {@link CartesianPlane#getBounds()} these do not
+     * include the points of any series.
+     */
+    public Optional<Bounds> getPointBounds() {
+        return Optional.ofNullable(pointBounds);
+    }
+
+    /**
+     * The plotted functions keyed by label, in label order.
+     */
+    public SortedMap<String, DoubleUnaryOperator> getFunctions() {
+        return functions;
+    }
+
+    /**
+     * The series of the plane keyed by name, in name order. The series themselves are live,
+     * so their points may have changed since the snapshot was taken.
+     */
+    public SortedMap<String, PointSeries> getSeries() {
+        return series;
+    }
+}
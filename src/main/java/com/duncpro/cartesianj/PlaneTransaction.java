@@ -0,0 +1,72 @@
+package com.duncpro.cartesianj;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Collects modifications which are applied to a {@link CartesianPlane} all at once.
+ * Instances are obtained through {@link CartesianPlane#update(java.util.function.Consumer)} and must not be used
+ * after the callback has returned.
+ */
+public final class PlaneTransaction {
+    final PointStore points = new PointStore();
+    final Map<String, DoubleUnaryOperator> functions = new LinkedHashMap<>();
+    private boolean closed = false;
+
+    PlaneTransaction() {}
+
+    public PlaneTransaction plot(Point point) {
+        requireNonNull(point);
+        return plot(point.getX(), point.getY());
+    }
+
+    public PlaneTransaction plot(double x, double y) {
+        checkOpen();
+        points.add(x, y);
+        return this;
+    }
+
+    public PlaneTransaction plot(double[] xs, double[] ys) {
+        requireNonNull(xs);
+        requireNonNull(ys);
+        if (xs.length != ys.length) throw new IllegalArgumentException("xs and ys must be of equal length");
+        checkOpen();
+        points.addAll(xs, ys, 0, xs.length);
+        return this;
+    }
+
+    public PlaneTransaction plot(Iterable<Point> points) {
+        requireNonNull(points);
+        checkOpen();
+        this.points.addAll(points);
+        return this;
+    }
+
+    /**
+     * Plots the given function, replacing any function which was previously plotted under the same label.
+     * If the same label is plotted more than once within a transaction, the last function wins.
+     */
+    public PlaneTransaction plotOperator(String label, DoubleUnaryOperator f) {
+        requireNonNull(label);
+        requireNonNull(f);
+        checkOpen();
+        functions.put(label, f);
+        return this;
+    }
+
+    public PlaneTransaction plot(String label, Function<Double, Double> f) {
+        return plotOperator(label, CartesianPlane.adapt(f));
+    }
+
+    private void checkOpen() {
+        if (closed) throw new IllegalStateException("This transaction has already been committed.");
+    }
+
+    void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,10 @@
+package com.duncpro.cartesianj;
+
+/**
+ * Receives the coordinates of plotted points without requiring a {@link Point} object to be allocated
+ * for each one.
+ */
+@FunctionalInterface
+public interface PointConsumer {
+    void accept(double x, double y);
+}
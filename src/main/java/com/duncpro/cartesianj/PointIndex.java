@@ -0,0 +1,186 @@
+package com.duncpro.cartesianj;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A quadtree over the points of a {@link PointStore}, used to find the points which lie within a rectangle
+ * in time proportional to the number of points found rather than the number of points plotted.
+ *
+ * The index does not slow down plotting. Points are appended to the store without touching the index, and the index
+ * incrementally inserts the points it has not seen yet at the beginning of the next query. The root of the tree
+ * grows outwards as points arrive, so the extent of the data does not need to be known in advance.
+ * Points whose coordinates are NaN or infinite can never be visible and are not indexed.
+ *
+ * Queries are serialized. Instances are thread-safe.
+ */
+final class PointIndex {
+    private static final int LEAF_CAPACITY = 32;
+
+    // Beyond this depth leaves are no longer split, so that many points with identical coordinates
+    // do not cause unbounded recursion.
+    private static final int MAX_DEPTH = 32;
+
+    private final PointStore store;
+    private int indexedCount = 0;
+    private Node root = null;
+
+    private static final class Node {
+        // Bounds are inclusive at the minimum and exclusive at the maximum.
+        final double minX;
+        final double minY;
+        final double maxX;
+        final double maxY;
+        final int depth;
+
+        // Non-null while this node is a leaf
+        int[] indices = new int[LEAF_CAPACITY];
+        int count = 0;
+
+        // Non-null once this node has been split. Ordered south-west, south-east, north-west, north-east.
+        Node[] children = null;
+
+        Node(double minX, double minY, double maxX, double maxY, int depth) {
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.depth = depth;
+        }
+
+        boolean contains(double x, double y) {
+            return x >= minX && x < maxX && y >= minY && y < maxY;
+        }
+    }
+
+    PointIndex(PointStore store) {
+        this.store = requireNonNull(store);
+    }
+
+    /**
+     * Passes every point within the given rectangle, including its edges, to the given consumer.
+     * The consumer is invoked while the index is locked, so it must not block on another thread which queries
+     * the same index.
+     * @return the number of points in the store which the query considered. Points appended to the store after
+     * this many points are not passed to the consumer, even if they lie within the rectangle.
+     */
+    synchronized int forEachWithin(double minX, double minY, double maxX, double maxY, PointConsumer consumer) {
+        requireNonNull(consumer);
+        catchUp();
+        if (root == null) return indexedCount;
+        final double[] xs = store.xs();
+        final double[] ys = store.ys();
+
+        // Walking the tree is more expensive than scanning the store when every point is within the rectangle.
+        // The scan skips the non-finite points, which are never in the tree.
+        if (minX <= root.minX && minY <= root.minY && maxX >= root.maxX && maxY >= root.maxY) {
+            for (int i = 0; i < indexedCount; i++) {
+                final double x = xs[i];
+                final double y = ys[i];
+                if (Double.isFinite(x) && Double.isFinite(y)) consumer.accept(x, y);
+            }
+            return indexedCount;
+        }
+        query(root, xs, ys, minX, minY, maxX, maxY, consumer);
+        return indexedCount;
+    }
+
+    private static void query(Node node, double[] xs, double[] ys, double minX, double minY, double maxX,
+                              double maxY, PointConsumer consumer) {
+        if (node.maxX < minX || node.minX > maxX || node.maxY < minY || node.minY > maxY) return;
+        if (node.children != null) {
+            for (Node child : node.children) {
+                query(child, xs, ys, minX, minY, maxX, maxY, consumer);
+            }
+            return;
+        }
+        for (int i = 0; i < node.count; i++) {
+            final int index = node.indices[i];
+            final double x = xs[index];
+            final double y = ys[index];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) consumer.accept(x, y);
+        }
+    }
+
+    private void catchUp() {
+        final int size = store.size();
+        if (indexedCount == size) return;
+        final double[] xs = store.xs();
+        final double[] ys = store.ys();
+        for (int i = indexedCount; i < size; i++) {
+            final double x = xs[i];
+            final double y = ys[i];
+            if (!Double.isFinite(x) || !Double.isFinite(y)) continue;
+            if (root == null) root = new Node(Math.floor(x), Math.floor(y), Math.floor(x) + 1, Math.floor(y) + 1, 0);
+            while (!root.contains(x, y)) grow(x, y);
+            insert(root, xs, ys, i);
+        }
+        indexedCount = size;
+    }
+
+    /**
+     * Doubles the size of the root towards the given point. The old root becomes one of the quadrants of the new one.
+     */
+    private void grow(double x, double y) {
+        final double size = root.maxX - root.minX;
+        final boolean west = x < root.minX;
+        final boolean south = y < root.minY;
+        final double minX = west ? root.minX - size : root.minX;
+        final double minY = south ? root.minY - size : root.minY;
+        final var newRoot = new Node(minX, minY, minX + (2 * size), minY + (2 * size), 0);
+        newRoot.indices = null;
+        newRoot.children = new Node[4];
+        final int oldRootQuadrant = (south ? 2 : 0) + (west ? 1 : 0);
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            newRoot.children[quadrant] = quadrant == oldRootQuadrant ? root : createQuadrant(newRoot, quadrant);
+        }
+        // Subtrees keep the depth they were created with. Depth only bounds splitting, so this merely allows a former
+        // root to be split somewhat deeper than its new siblings.
+        root = newRoot;
+    }
+
+    private static Node createQuadrant(Node parent, int quadrant) {
+        final double midX = (parent.minX + parent.maxX) / 2;
+        final double midY = (parent.minY + parent.maxY) / 2;
+        final boolean east = (quadrant & 1) != 0;
+        final boolean north = (quadrant & 2) != 0;
+        return new Node(east ? midX : parent.minX, north ? midY : parent.minY,
+                east ? parent.maxX : midX, north ? parent.maxY : midY, parent.depth + 1);
+    }
+
+    private static int quadrantOf(Node node, double x, double y) {
+        final double midX = (node.minX + node.maxX) / 2;
+        final double midY = (node.minY + node.maxY) / 2;
+        return (y >= midY ? 2 : 0) + (x >= midX ? 1 : 0);
+    }
+
+    private static void insert(Node node, double[] xs, double[] ys, int index) {
+        while (node.children != null) {
+            node = node.children[quadrantOf(node, xs[index], ys[index])];
+        }
+        if (node.count == node.indices.length) {
+            if (node.depth < MAX_DEPTH) {
+                split(node, xs, ys);
+                insert(node, xs, ys, index);
+                return;
+            }
+            node.indices = Arrays.copyOf(node.indices, node.indices.length * 2);
+        }
+        node.indices[node.count++] = index;
+    }
+
+    private static void split(Node node, double[] xs, double[] ys) {
+        node.children = new Node[4];
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            node.children[quadrant] = createQuadrant(node, quadrant);
+        }
+        final int[] indices = node.indices;
+        final int count = node.count;
+        node.indices = null;
+        node.count = 0;
+        for (int i = 0; i < count; i++) {
+            insert(node, xs, ys, indices[i]);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.duncpro.cartesianj;
+
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A named sequence of points with bounded memory, for data which streams in indefinitely like live telemetry.
+ * Series are created using {@link CartesianPlane#createSeries(String, int, double)}.
+ *
+ * Points are kept in a ring buffer of fixed capacity. Once the buffer is full, appending a point overwrites the
+ * oldest one, so appending never copies or allocates, and neither the memory used by a series nor the cost of
+ * drawing it grows over time. A series may additionally be limited to a window of x coordinates, in which case
+ * appending a point also evicts the points which have fallen out of the window.
+ *
+ * Viewports draw a series as a line connecting its points in the order they were appended.
+ * Every append notifies the plane's listeners. Use {@link #appendAll(double[], double[])} to append many points
+ * with a single notification.
+ *
+ * The bounds of a series are maintained as points are appended and evicted, so {@link #getBounds()} takes constant
+ * time, and appending takes amortized constant time, even while a window slides along the x-axis. Instances are
+ * thread-safe.
+ */
+public final class PointSeries {
+    private final CartesianPlane plane;
+    private final String name;
+    private final double xWindow;
+
+    private final double[] xs;
+    private final double[] ys;
+    // The index of the oldest point
+    private int head = 0;
+    private int size = 0;
+
+    // The extrema of the finite points
+    private final Extremum minX;
+    private final Extremum maxX;
+    private final Extremum minY;
+    private final Extremum maxY;
+
+    PointSeries(CartesianPlane plane, String name, int capacity, double xWindow) {
+        this.plane = requireNonNull(plane);
+        this.name = requireNonNull(name);
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        if (!(xWindow >= 0)) throw new IllegalArgumentException("xWindow must not be negative");
+        this.xWindow = xWindow;
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.minX = new Extremum(xs, false);
+        this.maxX = new Extremum(xs, true);
+        this.minY = new Extremum(ys, false);
+        this.maxY = new Extremum(ys, true);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return xs.length;
+    }
+
+    public double getXWindow() {
+        return xWindow;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public void append(double x, double y) {
+        synchronized (this) {
+            appendLocked(x, y);
+        }
+        plane.fireSeriesChange(this);
+    }
+
+    /**
+     * Appends the points {@code (xs[i], ys[i])} in order, and notifies the plane's listeners once.
+     */
+    public void appendAll(double[] xs, double[] ys) {
+        requireNonNull(xs);
+        requireNonNull(ys);
+        if (xs.length != ys.length) throw new IllegalArgumentException("xs and ys must be of equal length");
+        synchronized (this) {
+            for (int i = 0; i < xs.length; i++) appendLocked(xs[i], ys[i]);
+        }
+        plane.fireSeriesChange(this);
+    }
+
+    private void appendLocked(double x, double y) {
+        if (size == xs.length) evictOldest();
+        final int tail = (head + size) % xs.length;
+        xs[tail] = x;
+        ys[tail] = y;
+        size++;
+        if (Double.isFinite(x) && Double.isFinite(y)) {
+            minX.add(tail);
+            maxX.add(tail);
+            minY.add(tail);
+            maxY.add(tail);
+        }
+        if (Double.isNaN(x)) return;
+        while (size > 1 && xs[head] < x - xWindow) evictOldest();
+    }
+
+    private void evictOldest() {
+        minX.evict(head);
+        maxX.evict(head);
+        minY.evict(head);
+        maxY.evict(head);
+        head = (head + 1) % xs.length;
+        size--;
+    }
+
+    public void clear() {
+        synchronized (this) {
+            head = 0;
+            size = 0;
+            minX.clear();
+            maxX.clear();
+            minY.clear();
+            maxY.clear();
+        }
+        plane.fireSeriesChange(this);
+    }
+
+    /**
+     * Passes the points of the series to the given consumer, from the oldest to the most recently appended.
+     * The consumer is invoked while the series is locked, so appending blocks until this method returns.
+     */
+    public synchronized void forEach(PointConsumer consumer) {
+        requireNonNull(consumer);
+        final int capacity = xs.length;
+        for (int i = 0; i < size; i++) {
+            final int index = (head + i) % capacity;
+            consumer.accept(xs[index], ys[index]);
+        }
+    }
+
+    /**
+     * Returns the smallest rectangle which contains the finite points currently held by the series.
+     */
+    public synchronized Optional<Bounds> getBounds() {
+        // Either all of the extrema are empty or none are, since they hold the same points
+        if (minX.isEmpty()) return Optional.empty();
+        return Optional.of(new Bounds(minX.get(), minY.get(), maxX.get(), maxY.get()));
+    }
+
+    /**
+     * The minimum or maximum of one coordinate of the points held by the series, maintained as a monotonic queue of
+     * their indices in the ring buffer. A point is dropped from the queue once a newer point with a smaller value, or
+     * a larger one for the maximum, is added, since it can never be the extremum again before that point is evicted.
+     * The front of the queue is therefore always the extremum. Every point is added and dropped at most once.
+     */
+    private static final class Extremum {
+        private final double[] values;
+        private final boolean maximum;
+        private final int[] indices;
+        private int head = 0;
+        private int size = 0;
+
+        Extremum(double[] values, boolean maximum) {
+            this.values = values;
+            this.maximum = maximum;
+            this.indices = new int[values.length];
+        }
+
+        void add(int index) {
+            final double value = values[index];
+            while (size > 0) {
+                final double last = values[indices[(head + size - 1) % indices.length]];
+                if (maximum ? last > value : last < value) break;
+                size--;
+            }
+            indices[(head + size) % indices.length] = index;
+            size++;
+        }
+
+        /**
+         * Removes the point at the given index, which must be the oldest point of the series.
+         */
+        void evict(int index) {
+            if (size > 0 && indices[head] == index) {
+                head = (head + 1) % indices.length;
+                size--;
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double get() {
+            return values[indices[head]];
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.duncpro.cartesianj;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects points from many producer threads without any lock, until they are drained into a {@link PointStore}.
+ *
+ * Every producer thread appends into a chunk of its own, so producers never write to shared memory on the hot path.
+ * A point is published by a release store of the chunk's count, and becomes visible to the next drain. Full chunks
+ * are replaced by fresh ones, and are forgotten once they have been drained completely.
+ *
+ * Points appended by one thread are drained in the order they were appended. Points appended by different threads
+ * are drained in no particular order.
+ */
+final class PointStagingBuffer {
+    private static final int CHUNK_CAPACITY = 1024;
+
+    private static final VarHandle COUNT;
+
+    static {
+        try {
+            COUNT = MethodHandles.lookup().findVarHandle(Chunk.class, "count", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final class Chunk {
+        final double[] xs = new double[CHUNK_CAPACITY];
+        final double[] ys = new double[CHUNK_CAPACITY];
+
+        // The number of published points. Only written by the producer, using release semantics.
+        @SuppressWarnings("unused")
+        int count = 0;
+
+        // The producer's own copy of count, which it can read without a fence
+        int appended = 0;
+
+        // The number of points which have been drained. Only accessed while draining.
+        int drained = 0;
+
+        // The chunk which the same producer filled before this one, until it has been drained completely.
+        // Only accessed while draining.
+        Chunk previous;
+
+        Chunk(Chunk previous) {
+            this.previous = previous;
+        }
+    }
+
+    private final ThreadLocal<Chunk> producerChunks = new ThreadLocal<>();
+
+    // Every chunk which may hold points that have not been drained yet, in the order the chunks were created
+    private final ConcurrentLinkedQueue<Chunk> chunks = new ConcurrentLinkedQueue<>();
+
+    void add(double x, double y) {
+        Chunk chunk = producerChunks.get();
+        if (chunk == null || chunk.appended == CHUNK_CAPACITY) {
+            chunk = new Chunk(chunk);
+            chunks.add(chunk);
+            producerChunks.set(chunk);
+        }
+        final int n = chunk.appended;
+        chunk.xs[n] = x;
+        chunk.ys[n] = y;
+        chunk.appended = n + 1;
+        COUNT.setRelease(chunk, n + 1);
+    }
+
+    /**
+     * Appends every point which has been published so far to the given store. A thread which drains is guaranteed
+     * to drain all the points which it appended itself beforehand.
+     * @return the number of points drained
+     */
+    synchronized int drainTo(PointStore store) {
+        int drained = 0;
+        for (Iterator<Chunk> iterator = chunks.iterator(); iterator.hasNext(); ) {
+            final Chunk chunk = iterator.next();
+            // The producer may have filled its previous chunk after it was visited, and moved on to this one.
+            // The rest of the previous chunk must be drained first, which happens during the next drain.
+            if (chunk.previous != null) {
+                if (chunk.previous.drained < CHUNK_CAPACITY) continue;
+                chunk.previous = null;
+            }
+            final int count = (int) COUNT.getAcquire(chunk);
+            if (count > chunk.drained) {
+                store.addAll(chunk.xs, chunk.ys, chunk.drained, count - chunk.drained);
+                drained += count - chunk.drained;
+                chunk.drained = count;
+            }
+            if (chunk.drained == CHUNK_CAPACITY) iterator.remove();
+        }
+        return drained;
+    }
+}
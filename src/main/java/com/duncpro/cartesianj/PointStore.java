@@ -0,0 +1,153 @@
+package com.duncpro.cartesianj;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Growable columnar storage for plotted points. Coordinates are kept in two parallel primitive arrays
+ * instead of one {@link Point} object per observation.
+ *
+ * Writers are serialized, readers are not. Elements are never modified once they have been published,
+ * and a grown array always contains every previously published element. Therefore a reader which first observes
+ * {@link #size()} may safely read that many elements from whichever arrays it sees afterwards.
+ *
+ * The store also maintains the bounds of its points as they are appended, so that they can be read in constant time.
+ * Points whose coordinates are NaN or infinite are not included in the bounds.
+ */
+class PointStore {
+    private volatile double[] xs;
+    private volatile double[] ys;
+    private volatile int size = 0;
+
+    // Null until the first finite point is appended. Published before size, so a reader which observes the bounds
+    // after a given size always observes bounds which contain the first size points.
+    private volatile Bounds bounds = null;
+
+    PointStore(int initialCapacity) {
+        this.xs = new double[initialCapacity];
+        this.ys = new double[initialCapacity];
+    }
+
+    PointStore() {
+        this(16);
+    }
+
+    synchronized void add(double x, double y) {
+        final int n = size;
+        ensureCapacity(n + 1);
+        xs[n] = x;
+        ys[n] = y;
+        bounds = include(bounds, x, y);
+        size = n + 1;
+    }
+
+    synchronized void addAll(double[] xs, double[] ys, int offset, int length) {
+        final int n = size;
+        ensureCapacity(n + length);
+        System.arraycopy(xs, offset, this.xs, n, length);
+        System.arraycopy(ys, offset, this.ys, n, length);
+        bounds = include(bounds, this.xs, this.ys, n, n + length);
+        size = n + length;
+    }
+
+    synchronized void addAll(PointStore other) {
+        final int length = other.size;
+        addAll(other.xs, other.ys, 0, length);
+    }
+
+    /**
+     * Appends every point produced by the given {@link Iterable}. The new points become visible to readers
+     * all at once, after the last one has been copied into the store.
+     * @return the number of points appended
+     */
+    synchronized int addAll(Iterable<Point> points) {
+        final int n = size;
+        int appended = 0;
+        for (Point point : points) {
+            requireNonNull(point);
+            ensureCapacity(n + appended + 1);
+            xs[n + appended] = point.getX();
+            ys[n + appended] = point.getY();
+            appended++;
+        }
+        bounds = include(bounds, xs, ys, n, n + appended);
+        size = n + appended;
+        return appended;
+    }
+
+    private static Bounds include(Bounds bounds, double x, double y) {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) return bounds;
+        if (bounds == null) return new Bounds(x, y, x, y);
+        return bounds.include(x, y);
+    }
+
+    private static Bounds include(Bounds bounds, double[] xs, double[] ys, int fromIndex, int toIndex) {
+        // Accumulated in locals, so that a large batch does not create intermediate bounds.
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int i = fromIndex; i < toIndex; i++) {
+            final double x = xs[i];
+            final double y = ys[i];
+            if (!Double.isFinite(x) || !Double.isFinite(y)) continue;
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        if (minX > maxX) return bounds;
+        return include(include(bounds, minX, minY), maxX, maxY);
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        final int capacity = xs.length;
+        if (minCapacity <= capacity) return;
+        final int newCapacity = Math.max(minCapacity, capacity + (capacity >> 1) + 1);
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the bounds of the finite points within the store, or null if there are none.
+     */
+    Bounds bounds() {
+        return bounds;
+    }
+
+    /**
+     * Returns the array which currently holds the x coordinates. It contains at least as many valid elements as the
+     * value which {@link #size()} returned before this method was invoked. The array must not be modified.
+     */
+    double[] xs() {
+        return xs;
+    }
+
+    /**
+     * The counterpart of {@link #xs()} for y coordinates.
+     */
+    double[] ys() {
+        return ys;
+    }
+
+    void forEach(PointConsumer consumer) {
+        forEach(0, size, consumer);
+    }
+
+    /**
+     * Passes the points at indices {@code fromIndex} (inclusive) through {@code toIndex} (exclusive) to the given
+     * consumer. The range must be within the size of the store.
+     */
+    void forEach(int fromIndex, int toIndex, PointConsumer consumer) {
+        final double[] xs = this.xs;
+        final double[] ys = this.ys;
+        for (int i = fromIndex; i < toIndex; i++) {
+            consumer.accept(xs[i], ys[i]);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.duncpro.cartesianj;
+
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A polynomial with constant coefficients, evaluated by Horner's method.
+ *
+ * When sampled in bulk, the polynomial is evaluated one coefficient at a time across all x values, rather than one
+ * x value at a time across all coefficients. Each pass is a loop of one multiplication and one addition per element,
+ * without calls or branches, which the JIT compiler vectorizes. The operations are performed in the same order in
+ * either case, so both produce identical results. Instances are immutable.
+ */
+public final class Polynomial implements BatchFunction {
+    // coefficients[i] is the coefficient of x^i. Zero leading coefficients are removed.
+    private final double[] coefficients;
+
+    /**
+     * Creates the polynomial {@code coefficients[0] + coefficients[1] * x + coefficients[2] * x^2 + ...}.
+     * Without coefficients the polynomial is zero everywhere.
+     */
+    public Polynomial(double... coefficients) {
+        requireNonNull(coefficients);
+        int length = coefficients.length;
+        while (length > 0 && coefficients[length - 1] == 0) length--;
+        this.coefficients = Arrays.copyOf(coefficients, length);
+    }
+
+    /**
+     * Creates the polynomial {@code slope * x + intercept}.
+     */
+    public static Polynomial line(double slope, double intercept) {
+        return new Polynomial(intercept, slope);
+    }
+
+    /**
+     * The highest power of x with a coefficient other than zero, or -1 if every coefficient is zero.
+     */
+    public int getDegree() {
+        return coefficients.length - 1;
+    }
+
+    /**
+     * The coefficient of x raised to the given power, which is zero beyond the degree of the polynomial.
+     */
+    public double getCoefficient(int power) {
+        if (power < 0) throw new IllegalArgumentException();
+        return power < coefficients.length ? coefficients[power] : 0;
+    }
+
+    @Override
+    public double applyAsDouble(double x) {
+        if (coefficients.length == 0) return 0;
+        double y = coefficients[coefficients.length - 1];
+        for (int i = coefficients.length - 2; i >= 0; i--) {
+            y = (y * x) + coefficients[i];
+        }
+        return y;
+    }
+
+    @Override
+    public void applyAsDouble(double[] xs, double[] ys, int offset, int length) {
+        // Each pass reads every x after the previous pass wrote every y, so the arrays must be distinct.
+        if (xs == ys) {
+            BatchFunction.super.applyAsDouble(xs, ys, offset, length);
+            return;
+        }
+        final int end = offset + length;
+        Arrays.fill(ys, offset, end, coefficients.length == 0 ? 0 : coefficients[coefficients.length - 1]);
+        for (int c = coefficients.length - 2; c >= 0; c--) {
+            final double coefficient = coefficients[c];
+            for (int i = offset; i < end; i++) {
+                ys[i] = (ys[i] * xs[i]) + coefficient;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Polynomial)) return false;
+        return Arrays.equals(coefficients, ((Polynomial) o).coefficients);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(coefficients);
+    }
+
+    @Override
+    public String toString() {
+        return "Polynomial" + Arrays.toString(coefficients);
+    }
+}
@@ -1,24 +1,26 @@
 package com.duncpro.cartesianj.awt;
 
 import java.awt.*;
+import java.time.Duration;
 import java.util.*;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.duncpro.cartesianj.*;
-import com.duncpro.cartesianj.Point;
 
 import static com.duncpro.cartesianj.Direction.HORIZONTAL;
 import static com.duncpro.cartesianj.Direction.VERTICAL;
-import static com.duncpro.cartesianj.awt.AwtUtil.generalPurposeColorMap;
-import static java.lang.Math.max;
 import static java.util.Objects.requireNonNull;
 
 public class AwtCartesianPlaneViewport extends Canvas implements CartesianPlaneViewport {
     private final CartesianPlane plane;
     private final AwtPixelConverter converter;
+    private final FrameScheduler scheduler = FrameScheduler.getShared();
 
     public AwtCartesianPlaneViewport(CartesianPlane plane) {
         this.plane = requireNonNull(plane);
@@ -28,18 +30,132 @@ public class AwtCartesianPlaneViewport extends Canvas implements CartesianPlaneV
         // It is possible to add or remove functions from the CartesianPlane, among other things.
         // Therefore, tis AwtCartesianPlaneView must monitor the given CartesianPlane for changes,
         // and redraw the view when they occur.
-        final Runnable onChange = this::repaint;
+        final PlaneChangeListener onChange = event -> {
+            changeEventsReceived.incrementAndGet();
+            redraw();
+        };
         plane.addChangeListener(onChange);
         this.addComponentListener(new ComponentAdapter() {
             @Override
             public void componentShown(ComponentEvent e) {
                 plane.addChangeListener(onChange);
+                // The plane may have changed while this viewport was hidden
+                redraw();
             }
             @Override
             public void componentHidden(ComponentEvent e) {
                 plane.removeChangeListener(onChange);
             }
         });
+        this.addMouseListener(navigation);
+        this.addMouseMotionListener(navigation);
+        this.addMouseWheelListener(navigation);
+        gestureEnd.setRepeats(false);
+    }
+
+    /**
+     * The factor by which one notch of the mouse wheel zooms in or out.
+     */
+    private static final double ZOOM_PER_WHEEL_NOTCH = 1.1;
+
+    /**
+     * The time in milliseconds after the last movement of a pan or zoom after which the gesture is considered over,
+     * and the viewport is drawn at full quality again.
+     */
+    private static final int GESTURE_SETTLE_MILLIS = 150;
+
+    // Set while the user is panning or zooming, during which frames are drawn as previews. Only written by the
+    // event dispatch thread.
+    private volatile boolean gestureActive = false;
+
+    private final javax.swing.Timer gestureEnd = new javax.swing.Timer(GESTURE_SETTLE_MILLIS, event -> {
+        gestureActive = false;
+        redraw();
+    });
+
+    private volatile boolean mouseNavigation = true;
+
+    private final MouseAdapter navigation = new MouseAdapter() {
+        private int lastX;
+        private int lastY;
+
+        @Override
+        public void mousePressed(MouseEvent e) {
+            lastX = e.getX();
+            lastY = e.getY();
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e) {
+            if (!mouseNavigation) return;
+            beginGesture();
+            pan(e.getX() - lastX, e.getY() - lastY);
+            lastX = e.getX();
+            lastY = e.getY();
+        }
+
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent e) {
+            if (!mouseNavigation) return;
+            beginGesture();
+            zoom(Math.pow(ZOOM_PER_WHEEL_NOTCH, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+        }
+    };
+
+    private void beginGesture() {
+        gestureActive = true;
+        gestureEnd.restart();
+    }
+
+    /**
+     * Enables or disables panning by dragging with the mouse and zooming with the mouse wheel, about the position of
+     * the pointer. While a gesture is in progress, frames are drawn as previews: functions are sampled coarsely, only
+     * a fraction of the plotted points are drawn, and the density raster is reprojected instead of being binned again.
+     * Once the mouse has been still for a moment the viewport is drawn at full quality.
+     * It is enabled by default.
+     */
+    public void setMouseNavigation(boolean enabled) {
+        this.mouseNavigation = enabled;
+    }
+
+    public boolean isMouseNavigation() {
+        return mouseNavigation;
+    }
+
+    /**
+     * Moves the contents of the viewport by the given number of pixels, and redraws it once.
+     */
+    @Override
+    public synchronized void pan(double dx, double dy) {
+        if (!Double.isFinite(dx) || !Double.isFinite(dy)) throw new IllegalArgumentException();
+        horizontalOffset += dx;
+        verticalOffset += dy;
+        converter.invalidate();
+        redraw();
+    }
+
+    /**
+     * Magnifies the contents of the viewport about the given pixel position, and redraws it once.
+     */
+    @Override
+    public synchronized void zoom(double factor, double anchorX, double anchorY) {
+        if (!(factor > 0) || Double.isInfinite(factor)) throw new IllegalArgumentException();
+        final double originX = (getWidth() / 2) + horizontalOffset;
+        final double originY = (getHeight() / 2) + verticalOffset;
+        xAxisStepSize /= factor;
+        yAxisStepSize /= factor;
+        horizontalOffset = anchorX - ((anchorX - originX) * factor) - (getWidth() / 2);
+        verticalOffset = anchorY - ((anchorY - originY) * factor) - (getHeight() / 2);
+        converter.invalidate();
+        redraw();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void reshape(int x, int y, int width, int height) {
+        // Every resize of a component, whether by setSize, setBounds or a layout manager, ends up here.
+        super.reshape(x, y, width, height);
+        converter.invalidate();
     }
 
     public int getXAxisPosition() {
@@ -60,139 +176,244 @@ public class AwtCartesianPlaneViewport extends Canvas implements CartesianPlaneV
     }
 
     public int yToPos(double step) {
-        return getXAxisPosition() - converter.toPx(step, Axis.Y);
+        return converter.toScreenY(step);
     }
 
     public int xToPos(double step) {
-        return getYAxisPosition() + converter.toPx(step, Axis.X);
+        return converter.toScreenX(step);
     }
 
+    // Draws directly onto this component when background rendering is disabled. Only accessed by the painting thread.
+    private final PlaneRenderer renderer = new PlaneRenderer();
+
     @Override
     public void paint(Graphics graphics) {
-        ((Graphics2D) graphics).setStroke(new BasicStroke(1));
-        paintXAxis(graphics);
-        paintYAxis(graphics);
-        ((Graphics2D) graphics).setStroke(new BasicStroke(3));
-        for (int i = 0; i < plane.getPlottedFunctions().size(); i++) {
-            Color c = generalPurposeColorMap().apply(i);
-            Function<Double, Double> f = plane.getPlottedFunctions().entrySet().stream()
-                    .sorted(Map.Entry.comparingByKey())
-                    .map(Map.Entry::getValue)
-                    .collect(Collectors.toList())
-                    .get(i);
-            graphics.setColor(c);
-            paintContinuousF(graphics, f);
-            graphics.setColor(Color.black);
-
+        final BackgroundRenderer backgroundRenderer = this.backgroundRenderer;
+        if (backgroundRenderer == null) {
+            publishMetrics(renderer.render((Graphics2D) graphics, this, currentSettings()));
+            return;
         }
-        plane.getPlottedPoints().forEach(point -> paintPoint(graphics, point, 6));
-        paintStepSize(graphics);
-    }
-
-    private void paintStepSize(Graphics graphics) {
-        final var stepSizeX = "Step Size (X): " + getQuantitativeStepSize(Axis.X);
-        final var stepSizeY = "Step Size (Y): " + getQuantitativeStepSize(Axis.Y);
-        final var textWidth = max(
-                graphics.getFontMetrics().stringWidth(stepSizeX),
-                graphics.getFontMetrics().stringWidth(stepSizeY)
-        );
-        final var x = getWidth() - (textWidth + 10 /* padding */);
-        final var y = getHeight() - (2 * graphics.getFontMetrics().getHeight());
-        graphics.drawString(stepSizeX, x, y);
-        graphics.drawString(stepSizeY, x, y + graphics.getFontMetrics().getHeight());
-    }
-
-    private void paintXAxis(Graphics graphics) {
-        graphics.drawLine(0, getXAxisPosition(), getWidth(), getXAxisPosition());
-        int visibleLeftEdgeX = 0;
-        int visibleRightEdgeX = visibleLeftEdgeX + getWidth();
-        int yAxisX = getYAxisPosition();
-
-        // Quadrants I & IV
-        int distanceFromYAxisToRightEdgePx = visibleRightEdgeX - yAxisX;
-
-        int distanceFromYAxisToRightEdgeTicks = distanceFromYAxisToRightEdgePx / getVisualStepSize(Axis.X);
-        for (int tick = 0; tick <= distanceFromYAxisToRightEdgeTicks; tick++) {
-            int xPx = getYAxisPosition() + (tick * getVisualStepSize(Axis.X));
-            graphics.drawLine(xPx, getXAxisPosition() - 5, xPx, getXAxisPosition() + 5);
+        // The completed frame may be outdated if the plane changed while this viewport was hidden
+        scheduler.onPainted(this);
+        if (!backgroundRenderer.blit(graphics, this, getBackground() == null ? Color.WHITE : getBackground())) {
+            // Requested straight away rather than scheduled, since the viewport is blank until then
+            backgroundRenderer.request(createFrameRequest());
         }
+    }
 
-        // Quadrants II & III
-        int distanceFromYAxisToLeftEdgePx = yAxisX - visibleLeftEdgeX;
-        int distanceFromYAxisToLeftEdgeTicks = distanceFromYAxisToLeftEdgePx / getVisualStepSize(Axis.X);
-        for (int tick = 0; tick <= distanceFromYAxisToLeftEdgeTicks; tick++) {
-            int xPx = getYAxisPosition() - (tick * converter.toPx(getQuantitativeStepSize(Axis.X), Axis.X));
-            graphics.drawLine(xPx, getXAxisPosition() - 5, xPx, getXAxisPosition() + 5);
+    @Override
+    public void update(Graphics graphics) {
+        // The completed frame covers the entire component. Clearing the component first would only cause flicker.
+        if (backgroundRenderer == null) {
+            super.update(graphics);
+        } else {
+            paint(graphics);
         }
     }
 
-    private void paintContinuousF(Graphics graphics, Function<Double, Double> f) {
-        int visibleLeftEdgeX = 0;
-        int visibleRightEdgeX = visibleLeftEdgeX + getWidth();
-        int yAxisX = getYAxisPosition();
-
-        final SortedMap<Integer, Integer> points = new TreeMap<>();
+    /**
+     * Redraws this viewport after its settings or its plane have changed, once the {@link FrameScheduler} next
+     * draws a frame.
+     */
+    private void redraw() {
+        scheduler.markDirty(this);
+    }
 
-        // Quadrants II & III
-        int distanceFromYAxisToLeftEdgePx = yAxisX - visibleLeftEdgeX;
-        for (int xPx = 0; xPx <= distanceFromYAxisToLeftEdgePx; xPx++) {
-            int xPxWithAxisOffset = getYAxisPosition() - xPx;
-            double y =  f.apply(xPosToX(xPxWithAxisOffset));
-            if (Double.isNaN(y)) continue;
-            int yPxWithAxisOffset = getXAxisPosition() - converter.toPx(y, Axis.Y);
-            points.put(xPxWithAxisOffset, yPxWithAxisOffset);
+    /**
+     * Invoked by the {@link FrameScheduler} in every frame in which this viewport is dirty.
+     */
+    void drawScheduledFrame() {
+        final BackgroundRenderer backgroundRenderer = this.backgroundRenderer;
+        if (backgroundRenderer == null) {
+            repaint();
+        } else {
+            backgroundRenderer.request(createFrameRequest());
         }
+    }
 
-        // Quadrants I & IV
-        int distanceFromYAxisToRightEdgePx = visibleRightEdgeX - yAxisX;
-        for (int xPx = 0; xPx <= distanceFromYAxisToRightEdgePx; xPx++) {
-            int xPxWithAxisOffset = getYAxisPosition() + xPx;
-            double y = f.apply(xPosToX(xPxWithAxisOffset));
-            if (Double.isNaN(y)) continue;
-            int yPxWithAxisOffset = getXAxisPosition() - converter.toPx(y, Axis.Y);
-            points.put(xPxWithAxisOffset, yPxWithAxisOffset);
-        }
+    private BackgroundRenderer.FrameRequest createFrameRequest() {
+        final Color background = getBackground() == null ? Color.WHITE : getBackground();
+        final Color foreground = getForeground() == null ? Color.BLACK : getForeground();
+        return new BackgroundRenderer.FrameRequest(new HeadlessCartesianPlaneViewport(this), background, foreground,
+                currentSettings());
+    }
+
+    private RenderSettings currentSettings() {
+        return gestureActive ? settings.withPreview(true) : settings;
+    }
+
+    private volatile BackgroundRenderer backgroundRenderer = null;
 
-        final var xs = new ArrayList<>(points.keySet());
-        for (int i = 0; i < points.keySet().size(); i++) {
-            if (i + 1 >= points.size()) break;
-            final var x1 = xs.get(i);
-            final var x2 = xs.get(i + 1);
-            graphics.drawLine(x1, points.get(x1), x2, points.get(x2));
+    /**
+     * Enables or disables background rendering. When enabled, frames are rendered into an offscreen image on one of
+     * the render threads shared by all viewports, see {@link FrameScheduler}, and the event dispatch thread only copies
+     * the most recently completed frame onto the screen. This avoids flicker, and keeps the user interface responsive
+     * while expensive functions are being sampled.
+     * If the viewport changes while a frame is being rendered, only the latest state is rendered next. Intermediate
+     * states are dropped rather than queued.
+     *
+     * Background rendering evaluates the plotted functions on the render thread instead of the event dispatch thread.
+     * It is disabled by default.
+     */
+    public synchronized void setBackgroundRendering(boolean enabled) {
+        if (enabled == isBackgroundRendering()) return;
+        if (enabled) {
+            backgroundRenderer = new BackgroundRenderer(this, this::publishMetrics, scheduler);
+        } else {
+            backgroundRenderer.shutdown();
+            backgroundRenderer = null;
         }
+        redraw();
+    }
+
+    public boolean isBackgroundRendering() {
+        return backgroundRenderer != null;
     }
 
-    private void paintYAxis(Graphics graphics) {
-        graphics.drawLine(getYAxisPosition(), 0, getYAxisPosition(), getHeight());
+    private volatile RenderSettings settings = RenderSettings.DEFAULT;
 
-        int topEdgeY = 0;
-        int bottomEdgeY = topEdgeY + getHeight();
-        int xAxisY = getXAxisPosition();
+    /**
+     * Sets the cache in which the samples of this viewport's functions are kept between frames.
+     * By default all viewports share {@link SampleCache#getShared()}.
+     */
+    public synchronized void setSampleCache(SampleCache cache) {
+        this.settings = settings.withSampleCache(requireNonNull(cache));
+        redraw();
+    }
 
-        int distanceFromXAxisToTopEdgePx = xAxisY - topEdgeY;
-        int distanceFromXAxisToTopEdgeTicks = distanceFromXAxisToTopEdgePx / getVisualStepSize(Axis.Y);
-        for (int tick = 0; tick <= distanceFromXAxisToTopEdgeTicks; tick++) {
-            int yPx = getXAxisPosition() - tick * converter.toPx(getQuantitativeStepSize(Axis.Y), Axis.Y);
-            graphics.drawLine(getYAxisPosition() - 5, yPx, getYAxisPosition() + 5, yPx);
-        }
+    public SampleCache getSampleCache() {
+        return settings.sampleCache;
+    }
 
-        int distanceFromXAxisToBottomEdgePx = bottomEdgeY - xAxisY;
-        int distanceFromXAxisToBottomEdgeTicks = distanceFromXAxisToBottomEdgePx / getVisualStepSize(Axis.Y);
-        for (int tick = 0; tick <= distanceFromXAxisToBottomEdgeTicks; tick++) {
-            int yPx = getXAxisPosition() + (tick * converter.toPx(getQuantitativeStepSize(Axis.Y), Axis.Y));
-            graphics.drawLine(getYAxisPosition() - 5, yPx, getYAxisPosition() + 5, yPx);
-        }
+    /**
+     * Sets the cache in which the points of this viewport are kept as rasterized tiles, so that panning over points
+     * which have not changed does not draw them again. By default all viewports share {@link TileCache#getShared()}.
+     * Tiles are only used once a plane has {@value TileLayer#TILED_POINT_THRESHOLD} points, and only if the cache can
+     * hold every visible tile. A cache of zero bytes disables them.
+     */
+    public synchronized void setTileCache(TileCache cache) {
+        this.settings = settings.withTileCache(requireNonNull(cache));
+        redraw();
+    }
+
+    public TileCache getTileCache() {
+        return settings.tileCache;
+    }
+
+    /**
+     * Enables parallel sampling of plotted functions on the given pool. Distinct functions are sampled concurrently,
+     * and the x range of each function is split across the pool. The rendering thread waits for all samples before
+     * drawing them. Pass {@code null} to sample all functions serially on the rendering thread, which is the default.
+     *
+     * Parallel sampling must only be enabled if every function plotted on the plane is safe to invoke from many threads
+     * at once. The degree of parallelism is determined by the given pool, for instance
+     * {@code new ForkJoinPool(4)}. {@link ForkJoinPool#commonPool()} may also be used.
+     */
+    public synchronized void setSamplingPool(ForkJoinPool pool) {
+        this.settings = settings.withSamplingPool(pool);
+        redraw();
+    }
+
+    public Optional<ForkJoinPool> getSamplingPool() {
+        return Optional.ofNullable(settings.samplingPool);
+    }
+
+    /**
+     * Sets the number of plotted points above which points are no longer drawn individually, but aggregated into a
+     * density raster. Each cell of the raster is colored according to the number of points within it, using
+     * {@link AwtUtil#densityColorMap()}. The default is {@value RenderSettings#DEFAULT_DENSITY_THRESHOLD}.
+     * Zero always aggregates, and {@link Integer#MAX_VALUE} never does.
+     */
+    public synchronized void setDensityThreshold(int threshold) {
+        this.settings = settings.withDensityThreshold(threshold);
+        redraw();
+    }
+
+    public int getDensityThreshold() {
+        return settings.densityThreshold;
+    }
+
+    /**
+     * Sets the width and height, in pixels, of each cell of the density raster.
+     * The default is {@value RenderSettings#DEFAULT_DENSITY_CELL_SIZE}.
+     */
+    public synchronized void setDensityCellSize(int size) {
+        this.settings = settings.withDensityCellSize(size);
+        redraw();
+    }
+
+    public int getDensityCellSize() {
+        return settings.densityCellSize;
+    }
+
+    /**
+     * Sets the time for which each function may be sampled within a frame. Functions are sampled on a separate
+     * thread, and a function which exceeds its budget is drawn only as far as it has been sampled, and flagged in the
+     * corner of the viewport. A function which does not return from a single evaluation in time is not drawn at all,
+     * and is not evaluated again until that evaluation returns. Either way, the rest of the plane is still drawn.
+     * The default is half a second.
+     */
+    public synchronized void setFunctionTimeBudget(Duration budget) {
+        this.settings = settings.withFunctionTimeBudget(requireNonNull(budget));
+        redraw();
+    }
+
+    public Duration getFunctionTimeBudget() {
+        return Duration.ofNanos(settings.functionTimeBudgetNanos);
+    }
+
+    /**
+     * Draws the frame rate and the label of the slowest function in the corner of the viewport.
+     * It is disabled by default.
+     */
+    public synchronized void setDebugOverlay(boolean enabled) {
+        this.settings = settings.withDebugOverlay(enabled);
+        redraw();
+    }
+
+    public boolean isDebugOverlay() {
+        return settings.debugOverlay;
+    }
+
+    private final AtomicLong changeEventsReceived = new AtomicLong();
+    private final AtomicLong framesRendered = new AtomicLong();
+
+    // Copy-on-write, so that frames can be reported without holding a lock
+    private volatile Set<FrameMetricsListener> metricsListeners = Set.of();
+
+    /**
+     * Registers a listener which receives the {@link FrameMetrics} of every frame this viewport renders.
+     * Listeners are invoked on the thread which rendered the frame, which is the render thread when background
+     * rendering is enabled, and the event dispatch thread otherwise. They should return quickly.
+     */
+    public synchronized void addMetricsListener(FrameMetricsListener listener) {
+        final var listeners = new HashSet<>(metricsListeners);
+        listeners.add(requireNonNull(listener));
+        metricsListeners = Set.copyOf(listeners);
+    }
+
+    public synchronized void removeMetricsListener(FrameMetricsListener listener) {
+        final var listeners = new HashSet<>(metricsListeners);
+        listeners.remove(listener);
+        metricsListeners = Set.copyOf(listeners);
     }
 
-    private void paintPoint(Graphics graphics, Point point, int size) {
-        graphics.fillOval(xToPos(point.getX()) - (size / 2), yToPos(point.getY()) - (size / 2),
-                size, size);
+    private void publishMetrics(FrameMetrics metrics) {
+        final long frames = framesRendered.incrementAndGet();
+        final Set<FrameMetricsListener> listeners = metricsListeners;
+        if (listeners.isEmpty()) return;
+        final FrameMetrics reported = metrics.withViewportCounters(changeEventsReceived.get(), frames);
+        for (FrameMetricsListener listener : listeners) {
+            listener.onFrameRendered(reported);
+        }
     }
 
-    private int yTickWidth = 20;
-    private int xTickWidth = 20;
+    // The step sizes and offsets are read by the render threads without holding the lock. They are written while
+    // holding it, so that pan and zoom, which read them before writing, do not lose concurrent changes.
+    private volatile int yTickWidth = 20;
+    private volatile int xTickWidth = 20;
     @SuppressWarnings("DuplicatedCode")
-    public void setVisualStepSize(Axis axis, int size) {
+    public synchronized void setVisualStepSize(Axis axis, int size) {
         if (size <= 0) throw new IllegalArgumentException();
         switch (axis) {
             case X:
@@ -202,7 +423,8 @@ public class AwtCartesianPlaneViewport extends Canvas implements CartesianPlaneV
                 yTickWidth = size;
                 break;
         }
-        repaint();
+        converter.invalidate();
+        redraw();
     }
     public int getVisualStepSize(Axis axis) {
         requireNonNull(axis);
@@ -215,10 +437,10 @@ public class AwtCartesianPlaneViewport extends Canvas implements CartesianPlaneV
         throw new AssertionError();
     }
 
-    private double xAxisStepSize = 1;
-    private double yAxisStepSize = 1;
+    private volatile double xAxisStepSize = 1;
+    private volatile double yAxisStepSize = 1;
     @SuppressWarnings("DuplicatedCode")
-    public void setQuantitativeStepSize(Axis axis, double stepSize) {
+    public synchronized void setQuantitativeStepSize(Axis axis, double stepSize) {
         if (stepSize <= 0) throw new IllegalArgumentException();
         switch (axis) {
             case X:
@@ -228,7 +450,8 @@ public class AwtCartesianPlaneViewport extends Canvas implements CartesianPlaneV
                 yAxisStepSize = stepSize;
                 break;
         }
-        repaint();
+        converter.invalidate();
+        redraw();
     }
     public double getQuantitativeStepSize(Axis axis) {
         requireNonNull(axis);
@@ -241,9 +464,14 @@ public class AwtCartesianPlaneViewport extends Canvas implements CartesianPlaneV
         throw new AssertionError();
     }
 
-    int horizontalOffset = 0;
-    int verticalOffset = 0;
+    private volatile double horizontalOffset = 0;
+    private volatile double verticalOffset = 0;
     public int getOffset(Direction direction) {
+        return (int) Math.round(getPreciseOffset(direction));
+    }
+
+    @Override
+    public double getPreciseOffset(Direction direction) {
         requireNonNull(direction);
         switch (direction) {
             case HORIZONTAL:
@@ -251,7 +479,6 @@ public class AwtCartesianPlaneViewport extends Canvas implements CartesianPlaneV
             case VERTICAL:
                 return verticalOffset;
         }
-        repaint();
         throw new AssertionError();
     }
 
@@ -261,8 +488,14 @@ public class AwtCartesianPlaneViewport extends Canvas implements CartesianPlaneV
      * to the right edge of the plane.
      * For a vertical offset of 2, the x axis would appear 2 units closer to the bottom edge of the plane.
      */
-    public void setOffset(Direction dimension, int newOffset) {
+    public synchronized void setOffset(Direction dimension, int newOffset) {
+        setOffset(dimension, (double) newOffset);
+    }
+
+    @Override
+    public synchronized void setOffset(Direction dimension, double newOffset) {
         requireNonNull(dimension);
+        if (!Double.isFinite(newOffset)) throw new IllegalArgumentException();
         switch (dimension) {
             case HORIZONTAL:
                 horizontalOffset = newOffset;
@@ -271,7 +504,8 @@ public class AwtCartesianPlaneViewport extends Canvas implements CartesianPlaneV
                 verticalOffset = newOffset;
                 break;
         }
-        repaint();
+        converter.invalidate();
+        redraw();
     }
 
     @Override
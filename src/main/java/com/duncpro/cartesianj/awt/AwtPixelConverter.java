@@ -1,20 +1,92 @@
 package com.duncpro.cartesianj.awt;
 
 import com.duncpro.cartesianj.Axis;
-import com.duncpro.cartesianj.CartesianPlane;
 import com.duncpro.cartesianj.CartesianPlaneViewport;
+import com.duncpro.cartesianj.Direction;
 
-import static java.lang.Math.round;
-import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Converts between units on the plane and pixels within a viewport.
+ *
+ * The conversion is an affine transform, a scale and a translation per axis, which is computed from the viewport's
+ * size, step sizes and offsets. The transform is cached, and only rebuilt after the viewport has called
+ * {@link #invalidate()}, so converting a coordinate costs a multiplication and an addition rather than several
+ * divisions and calls back into the viewport.
+ *
+ * Pixel coordinates are saturated rather than overflowing. A value far outside the viewport, for instance the value
+ * of a function near an asymptote, converts to a coordinate {@link #MAX_OFFSCREEN_PX} beyond the edge of the viewport,
+ * which is still drawn in the right direction. NaN converts to the smallest coordinate, which is never visible.
+ */
 public class AwtPixelConverter {
+    /**
+     * The greatest distance, in pixels, beyond the edges of the viewport which a screen coordinate can have.
+     */
+    public static final int MAX_OFFSCREEN_PX = 1 << 20;
+
+    // The greatest magnitude of a relative pixel count. Adding the position of an axis to it cannot overflow.
+    private static final int MAX_PX = 1 << 30;
+
     private final CartesianPlaneViewport viewport;
 
+    private static final class Transform {
+        final int version;
+        final int width;
+        final int height;
+        // Pixels per unit
+        final double xScale;
+        final double yScale;
+        // Units per pixel
+        final double xInverseScale;
+        final double yInverseScale;
+        // The screen position of the origin, including the fraction of a pixel by which the viewport is offset
+        final double originX;
+        final double originY;
+
+        Transform(int version, CartesianPlaneViewport viewport) {
+            this.version = version;
+            this.width = viewport.getWidth();
+            this.height = viewport.getHeight();
+            this.xScale = viewport.getVisualStepSize(Axis.X) / viewport.getQuantitativeStepSize(Axis.X);
+            this.yScale = viewport.getVisualStepSize(Axis.Y) / viewport.getQuantitativeStepSize(Axis.Y);
+            this.xInverseScale = viewport.getQuantitativeStepSize(Axis.X) / viewport.getVisualStepSize(Axis.X);
+            this.yInverseScale = viewport.getQuantitativeStepSize(Axis.Y) / viewport.getVisualStepSize(Axis.Y);
+            this.originX = viewport.getYAxisPosition() + subpixelOffset(viewport, Direction.HORIZONTAL);
+            this.originY = viewport.getXAxisPosition() + subpixelOffset(viewport, Direction.VERTICAL);
+        }
+
+        private static double subpixelOffset(CartesianPlaneViewport viewport, Direction direction) {
+            return viewport.getPreciseOffset(direction) - viewport.getOffset(direction);
+        }
+    }
+
+    // Incremented by every invalidation. A transform built from an older version is rebuilt before it is used,
+    // even if it was cached after the invalidation by a thread which read the viewport's previous settings.
+    private volatile int version = 0;
+    private volatile Transform transform = null;
+
     public AwtPixelConverter(CartesianPlaneViewport viewport) {
         this.viewport = requireNonNull(viewport);
     }
 
+    /**
+     * Discards the cached transform. Viewports must invoke this method whenever their size, step sizes or offsets
+     * change.
+     */
+    public final synchronized void invalidate() {
+        version++;
+    }
+
+    private Transform transform() {
+        final int version = this.version;
+        Transform transform = this.transform;
+        if (transform == null || transform.version != version) {
+            transform = new Transform(version, viewport);
+            this.transform = transform;
+        }
+        return transform;
+    }
+
     protected final int getViewDimensionPx(Axis axis) {
         requireNonNull(axis);
         switch (axis) {
@@ -26,15 +98,160 @@ public class AwtPixelConverter {
         throw new AssertionError();
     }
 
+    /**
+     * The number of pixels which one unit along the given axis spans.
+     */
+    public final double getScale(Axis axis) {
+        requireNonNull(axis);
+        switch (axis) {
+            case X:
+                return transform().xScale;
+            case Y:
+                return transform().yScale;
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * The position within the viewport of the origin along the given axis, with sub-pixel precision.
+     * For {@link Axis#X} this is the horizontal position of the y-axis, and for {@link Axis#Y} the vertical position
+     * of the x-axis.
+     */
+    public final double getOriginPosition(Axis axis) {
+        requireNonNull(axis);
+        switch (axis) {
+            case X:
+                return transform().originX;
+            case Y:
+                return transform().originY;
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Converts a distance along the given axis into a number of pixels. The result saturates at
+     * 2^30 pixels in either direction instead of overflowing.
+     */
     public final int toPx(double n, Axis axis) {
-        double totalOnScreenTicks =  (double) getViewDimensionPx(axis) / viewport.getVisualStepSize(axis);
-        double pxPerTick = getViewDimensionPx(axis) / totalOnScreenTicks;
-        return toIntExact(round((n / viewport.getQuantitativeStepSize(axis)) * pxPerTick));
+        return (int) Math.floor(clamp(n * getScale(axis), -MAX_PX, MAX_PX) + 0.5);
     }
 
+    /**
+     * The smallest value along the given axis which is visible within the viewport.
+     */
+    public final double getVisibleMin(Axis axis) {
+        requireNonNull(axis);
+        final Transform transform = transform();
+        switch (axis) {
+            case X:
+                return -transform.originX * transform.xInverseScale;
+            case Y:
+                return (transform.originY - transform.height) * transform.yInverseScale;
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * The largest value along the given axis which is visible within the viewport.
+     */
+    public final double getVisibleMax(Axis axis) {
+        requireNonNull(axis);
+        final Transform transform = transform();
+        switch (axis) {
+            case X:
+                return (transform.width - transform.originX) * transform.xInverseScale;
+            case Y:
+                return transform.originY * transform.yInverseScale;
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Converts a number of pixels along the given axis into a distance in units.
+     */
     public final double toUnits(int px, Axis axis) {
-        double totalOnScreenTicks = (double) getViewDimensionPx(axis) / viewport.getVisualStepSize(axis);
-        double tickPerPx = totalOnScreenTicks / getViewDimensionPx(axis);
-        return (tickPerPx * px) * viewport.getQuantitativeStepSize(axis);
+        requireNonNull(axis);
+        final Transform transform = transform();
+        switch (axis) {
+            case X:
+                return px * transform.xInverseScale;
+            case Y:
+                return px * transform.yInverseScale;
+        }
+        throw new AssertionError();
+    }
+
+    /**
+     * Converts an x coordinate on the plane into a horizontal position within the viewport.
+     */
+    public final int toScreenX(double x) {
+        final Transform transform = transform();
+        return saturate(transform.originX + (x * transform.xScale), transform.width);
+    }
+
+    /**
+     * Converts a y coordinate on the plane into a vertical position within the viewport.
+     * Screen positions grow downwards, while coordinates grow upwards.
+     */
+    public final int toScreenY(double y) {
+        final Transform transform = transform();
+        return saturate(transform.originY - (y * transform.yScale), transform.height);
+    }
+
+    /**
+     * Converts {@code length} coordinates along the given axis, starting at {@code src[srcPos]}, into positions within
+     * the viewport, which are stored from {@code dst[dstPos]} onwards. Converting a whole array at once spares the
+     * caller a call per coordinate, and reads the transform only once.
+     */
+    public final void toScreen(Axis axis, double[] src, int srcPos, int[] dst, int dstPos, int length) {
+        requireNonNull(axis);
+        checkRange(src.length, srcPos, dst.length, dstPos, length);
+        final Transform transform = transform();
+        final boolean x = axis == Axis.X;
+        final double origin = x ? transform.originX : transform.originY;
+        final double scale = x ? transform.xScale : -transform.yScale;
+        final double min = -MAX_OFFSCREEN_PX;
+        final double max = (x ? transform.width : transform.height) + MAX_OFFSCREEN_PX;
+        for (int i = 0; i < length; i++) {
+            dst[dstPos + i] = (int) Math.floor(clamp(origin + (src[srcPos + i] * scale), min, max) + 0.5);
+        }
+    }
+
+    /**
+     * The counterpart of {@link #toScreen(Axis, double[], int, int[], int, int)} which does not round positions to
+     * whole pixels, for instance to build an antialiased {@link java.awt.geom.Path2D.Float}.
+     */
+    public final void toScreen(Axis axis, double[] src, int srcPos, float[] dst, int dstPos, int length) {
+        requireNonNull(axis);
+        checkRange(src.length, srcPos, dst.length, dstPos, length);
+        final Transform transform = transform();
+        final boolean x = axis == Axis.X;
+        final double origin = x ? transform.originX : transform.originY;
+        final double scale = x ? transform.xScale : -transform.yScale;
+        final double min = -MAX_OFFSCREEN_PX;
+        final double max = (x ? transform.width : transform.height) + MAX_OFFSCREEN_PX;
+        for (int i = 0; i < length; i++) {
+            dst[dstPos + i] = (float) clamp(origin + (src[srcPos + i] * scale), min, max);
+        }
+    }
+
+    private static int saturate(double px, int dimension) {
+        return (int) Math.floor(clamp(px, -MAX_OFFSCREEN_PX, dimension + MAX_OFFSCREEN_PX) + 0.5);
+    }
+
+    /**
+     * Clamps the given value into the given range, mapping NaN onto the minimum. Unlike
+     * {@link Math#max(double, double)} and {@link Math#min(double, double)} this compiles to plain comparisons, since
+     * it needs not distinguish -0.0 from 0.0.
+     */
+    private static double clamp(double value, double min, double max) {
+        final double atLeastMin = value >= min ? value : min;
+        return atLeastMin <= max ? atLeastMin : max;
+    }
+
+    private static void checkRange(int srcLength, int srcPos, int dstLength, int dstPos, int length) {
+        if (length < 0 || srcPos < 0 || dstPos < 0 || srcPos > srcLength - length || dstPos > dstLength - length) {
+            throw new IndexOutOfBoundsException();
+        }
     }
 }
@@ -24,4 +24,25 @@ public class AwtUtil {
                 .collect(Collectors.toList());
         return i -> colors.get(i % colors.size());
     }
+
+    /**
+     * A gradient from blue, for the lowest intensity, through cyan, green, yellow and orange to red,
+     * for the highest intensity. Intensities are clamped to the range zero through one.
+     */
+    public static Function<Double, Color> densityColorMap() {
+        final var colors = Stream.of(Color.BLUE, Color.CYAN, Color.GREEN, Color.YELLOW, Color.ORANGE, Color.RED)
+                .collect(Collectors.toList());
+        return intensity -> {
+            final double position = Math.max(0, Math.min(1, intensity)) * (colors.size() - 1);
+            final int i = Math.min((int) position, colors.size() - 2);
+            final double t = position - i;
+            final Color from = colors.get(i);
+            final Color to = colors.get(i + 1);
+            return new Color(
+                    (int) Math.round(from.getRed() + (t * (to.getRed() - from.getRed()))),
+                    (int) Math.round(from.getGreen() + (t * (to.getGreen() - from.getGreen()))),
+                    (int) Math.round(from.getBlue() + (t * (to.getBlue() - from.getBlue())))
+            );
+        };
+    }
 }
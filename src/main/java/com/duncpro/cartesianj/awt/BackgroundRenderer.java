@@ -0,0 +1,256 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.Axis;
+import com.duncpro.cartesianj.CartesianPlaneViewport;
+import com.duncpro.cartesianj.Direction;
+import com.duncpro.cartesianj.PlaneSnapshot;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Renders the frames of an {@link AwtCartesianPlaneViewport} into offscreen images on the render threads of its
+ * {@link FrameScheduler}. The event dispatch thread only ever copies the most recently completed frame onto the screen.
+ *
+ * At most one frame of a viewport is rendered at a time, and at most one frame waits to be rendered. A request which
+ * arrives while another request is still waiting replaces it, so a burst of modifications results in one frame
+ * reflecting the latest state of the viewport, instead of a backlog of frames which are outdated before they are drawn.
+ *
+ * Frames are double-buffered. The render thread draws into the back buffer while the event dispatch thread copies
+ * the front buffer, and the two are swapped once the frame is complete.
+ *
+ * While the viewport is being panned or zoomed, the front buffer no longer matches the viewport until the next frame
+ * is complete. It is then stretched and moved onto the viewport as it is now, so that the plane follows the pointer
+ * immediately, even if its edges are briefly blank.
+ *
+ * A frame becomes stale once a request for a different part of the plane arrives, or the plane's functions are
+ * replaced, while it is being rendered. Sampling of its functions is then abandoned, and the frame is discarded in
+ * favor of the latest request. Frames are not abandoned merely because points were plotted, since their functions
+ * need not be sampled again, and a plane which receives points continuously would never be drawn at all.
+ * For the same reason, replacing the functions only abandons a frame if the frame before it was completed. A model
+ * which is replaced by every step of a training loop, faster than it can be sampled, therefore still has every other
+ * frame drawn.
+ */
+final class BackgroundRenderer {
+    static final class FrameRequest {
+        // A private copy of the viewport's settings. The viewport may be modified while the frame is in flight,
+        // without the frame being drawn half at the old settings and half at the new ones.
+        final HeadlessCartesianPlaneViewport viewport;
+        final Color background;
+        final Color foreground;
+        final RenderSettings settings;
+
+        FrameRequest(HeadlessCartesianPlaneViewport viewport, Color background, Color foreground,
+                     RenderSettings settings) {
+            this.viewport = requireNonNull(viewport);
+            this.background = requireNonNull(background);
+            this.foreground = requireNonNull(foreground);
+            this.settings = requireNonNull(settings);
+        }
+
+        /**
+         * Whether the given request would draw the same plane with identical settings.
+         */
+        boolean isSameFrameAs(FrameRequest other) {
+            return isSameViewAs(other)
+                    && background.equals(other.background)
+                    && foreground.equals(other.foreground)
+                    && settings == other.settings;
+        }
+
+        /**
+         * Whether the given request would show the same part of the same plane, which determines where functions
+         * are sampled.
+         */
+        boolean isSameViewAs(FrameRequest other) {
+            return viewport.getPlane() == other.viewport.getPlane()
+                    && viewport.getWidth() == other.viewport.getWidth()
+                    && viewport.getHeight() == other.viewport.getHeight()
+                    && viewport.getVisualStepSize(Axis.X) == other.viewport.getVisualStepSize(Axis.X)
+                    && viewport.getVisualStepSize(Axis.Y) == other.viewport.getVisualStepSize(Axis.Y)
+                    && viewport.getQuantitativeStepSize(Axis.X) == other.viewport.getQuantitativeStepSize(Axis.X)
+                    && viewport.getQuantitativeStepSize(Axis.Y) == other.viewport.getQuantitativeStepSize(Axis.Y)
+                    && viewport.getPreciseOffset(Direction.HORIZONTAL)
+                        == other.viewport.getPreciseOffset(Direction.HORIZONTAL)
+                    && viewport.getPreciseOffset(Direction.VERTICAL)
+                        == other.viewport.getPreciseOffset(Direction.VERTICAL);
+        }
+    }
+
+    private final Component component;
+    private final Consumer<FrameMetrics> onFrameRendered;
+    private final FrameScheduler scheduler;
+    private final PlaneRenderer renderer = new PlaneRenderer();
+    private final AtomicReference<FrameRequest> pending = new AtomicReference<>();
+    // Set while a frame of this viewport is queued or being rendered on the scheduler's render pool
+    private final AtomicBoolean rendering = new AtomicBoolean();
+    private volatile boolean shutdown = false;
+
+    // The size of the most recently requested frame
+    private volatile Dimension requestedSize = null;
+
+    // Guards front and frontRequest, so that the buffers are never swapped while the front buffer is being copied
+    // onto the screen
+    private final Object frameLock = new Object();
+    private BufferedImage front = null;
+    private FrameRequest frontRequest = null;
+
+    // Only accessed by the thread rendering a frame
+    private BufferedImage back = null;
+
+    // The request and plane version of the frame in the front buffer. Only accessed by the thread rendering a frame.
+    private FrameRequest completedRequest = null;
+    private long completedVersion;
+    // Whether a frame has been abandoned since the last frame was completed. Only accessed by the thread rendering
+    // a frame.
+    private boolean abandoned = false;
+
+    /**
+     * @param component the component which is repainted whenever a frame has been completed
+     * @param onFrameRendered invoked on the render thread with the metrics of every completed frame.
+     *                        Frames which are skipped because they are identical to the one on screen are not reported.
+     * @param scheduler the scheduler whose render threads render the frames
+     */
+    BackgroundRenderer(Component component, Consumer<FrameMetrics> onFrameRendered, FrameScheduler scheduler) {
+        this.component = requireNonNull(component);
+        this.onFrameRendered = requireNonNull(onFrameRendered);
+        this.scheduler = requireNonNull(scheduler);
+    }
+
+    void request(FrameRequest request) {
+        requireNonNull(request);
+        requestedSize = new Dimension(request.viewport.getWidth(), request.viewport.getHeight());
+        pending.set(request);
+        schedulePending();
+    }
+
+    private void schedulePending() {
+        if (shutdown || pending.get() == null || !rendering.compareAndSet(false, true)) return;
+        // The priority is that of the viewport when the frame is queued, rather than when it was requested
+        scheduler.render(this::renderNext, FrameScheduler.priorityOf(component));
+    }
+
+    private void renderNext() {
+        try {
+            renderPending();
+        } finally {
+            rendering.set(false);
+            // A request which arrived during the frame is queued behind the frames of other viewports, rather than
+            // rendered straight away, so that a viewport which changes continuously cannot monopolize a render thread
+            schedulePending();
+        }
+    }
+
+    private void renderPending() {
+        final FrameRequest request = pending.getAndSet(null);
+        if (request == null) return;
+        final int width = request.viewport.getWidth();
+        final int height = request.viewport.getHeight();
+        if (width <= 0 || height <= 0) return;
+
+        // Frames are requested for every modification of the plane, and for every change of the viewport's settings,
+        // even if a setter is invoked with the current value. A frame identical to the one on screen is not redrawn.
+        final PlaneSnapshot snapshot = request.viewport.getPlane().snapshot();
+        if (completedRequest != null && completedVersion == snapshot.getVersion()
+                && completedRequest.isSameFrameAs(request)) {
+            return;
+        }
+
+        if (back == null || back.getWidth() != width || back.getHeight() != height) {
+            back = createImage(width, height);
+        }
+        final Graphics2D graphics = back.createGraphics();
+        final FrameMetrics metrics;
+        final boolean abandonOnReplacedFunctions = !abandoned;
+        try {
+            graphics.setColor(request.background);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setColor(request.foreground);
+            graphics.setFont(component.getFont());
+            metrics = renderer.render(graphics, request.viewport, snapshot, request.settings,
+                    () -> isStale(request, snapshot, abandonOnReplacedFunctions));
+        } catch (CancellationException e) {
+            // The pending request is rendered next
+            abandoned = true;
+            return;
+        } finally {
+            graphics.dispose();
+        }
+
+        synchronized (frameLock) {
+            final BufferedImage completed = back;
+            back = front;
+            front = completed;
+            frontRequest = request;
+        }
+        completedRequest = request;
+        completedVersion = snapshot.getVersion();
+        abandoned = false;
+        component.repaint();
+        onFrameRendered.accept(metrics);
+    }
+
+    private boolean isStale(FrameRequest request, PlaneSnapshot snapshot, boolean abandonOnReplacedFunctions) {
+        final FrameRequest next = pending.get();
+        if (next != null && !next.isSameViewAs(request)) return true;
+        return abandonOnReplacedFunctions && snapshot.getPlane().getPlottedOperators() != snapshot.getFunctions();
+    }
+
+    private BufferedImage createImage(int width, int height) {
+        final GraphicsConfiguration configuration = component.getGraphicsConfiguration();
+        if (configuration != null) return configuration.createCompatibleImage(width, height);
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Copies the most recently completed frame onto the given graphics. If the frame was rendered for a different
+     * scale or offset than those the given viewport has now, it is reprojected onto the viewport, and the area it
+     * does not cover is filled with the given background color.
+     * @return false if a frame of the viewport's size has neither been completed nor requested yet,
+     * in which case the caller should request one.
+     */
+    boolean blit(Graphics graphics, CartesianPlaneViewport viewport, Color background) {
+        final int width = viewport.getWidth();
+        final int height = viewport.getHeight();
+        synchronized (frameLock) {
+            if (front != null) drawReprojected((Graphics2D) graphics, viewport, background);
+            if (front != null && front.getWidth() == width && front.getHeight() == height) return true;
+        }
+        final Dimension requestedSize = this.requestedSize;
+        return requestedSize != null && requestedSize.width == width && requestedSize.height == height;
+    }
+
+    private void drawReprojected(Graphics2D graphics, CartesianPlaneViewport viewport, Color background) {
+        final AwtPixelConverter from = frontRequest.viewport.getConverter();
+        final AwtPixelConverter to = viewport.getConverter();
+        // A point drawn at p in the frame lies at originTo + (p - originFrom) * (scaleTo / scaleFrom) on screen
+        final double xStretch = to.getScale(Axis.X) / from.getScale(Axis.X);
+        final double yStretch = to.getScale(Axis.Y) / from.getScale(Axis.Y);
+        final double dx = to.getOriginPosition(Axis.X) - (from.getOriginPosition(Axis.X) * xStretch);
+        final double dy = to.getOriginPosition(Axis.Y) - (from.getOriginPosition(Axis.Y) * yStretch);
+        if (xStretch == 1 && yStretch == 1 && dx == 0 && dy == 0) {
+            graphics.drawImage(front, 0, 0, null);
+            return;
+        }
+        final Color color = graphics.getColor();
+        graphics.setColor(background);
+        graphics.fillRect(0, 0, viewport.getWidth(), viewport.getHeight());
+        graphics.setColor(color);
+        graphics.drawImage(front, new AffineTransform(xStretch, 0, 0, yStretch, dx, dy), null);
+    }
+
+    /**
+     * Discards the pending frame and stops rendering. A frame which is being rendered is completed.
+     */
+    void shutdown() {
+        shutdown = true;
+        pending.set(null);
+    }
+}
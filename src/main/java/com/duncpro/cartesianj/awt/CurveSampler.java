@@ -0,0 +1,520 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.Axis;
+import com.duncpro.cartesianj.BatchFunction;
+import com.duncpro.cartesianj.CartesianPlaneViewport;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+import static com.duncpro.cartesianj.awt.CurveSamples.BROKEN;
+import static com.duncpro.cartesianj.awt.CurveSamples.SETTLED;
+import static com.duncpro.cartesianj.awt.CurveSamples.UNSETTLED;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Adaptively samples a plotted function across the visible width of a viewport.
+ *
+ * The function is first sampled on a coarse grid of {@link #INITIAL_SPACING_PX} pixels. Every interval between two
+ * consecutive samples is then repeatedly bisected until the curve within it is straight to within
+ * {@link #TOLERANCE_PX}, or the interval is narrower than {@link #MIN_SPACING_PX}. Smooth stretches of the curve
+ * therefore cost very few evaluations, while steep and strongly curved stretches are sampled more densely than once
+ * per pixel column. Refinement proceeds one level at a time so that all midpoints of a level can be passed to
+ * a {@link BatchFunction} in a single call.
+ *
+ * An interval is only considered straight if a second probe, at {@link #PROBE_FRACTION} of its width, lies on the
+ * chord as well as its midpoint. The midpoints of every level lie on a grid of dyadic fractions of the initial
+ * spacing, so a function which repeats at such a fraction, like a sine whose zeros lie on the grid, would otherwise
+ * pass for a flat line. The probe lies at an irrational fraction, which no such function can repeat at.
+ *
+ * The curve is broken wherever the function is NaN or infinite, and wherever it jumps by more than the height of
+ * the viewport within an interval that could not be refined any further, if the jump either crosses the x-axis or
+ * the function approaches it from both sides. These are the signatures of a pole, like those of {@code tan(x)} and
+ * {@code 1/x}, or of {@code 1/x^2}, which does not change sign.
+ *
+ * Samples are kept in a {@link SampleCache} between frames, so repainting a viewport whose functions and
+ * zoom level have not changed does not evaluate any function, and panning only samples the newly exposed range.
+ * The working buffers are retained between frames and only grow.
+ *
+ * Sampling is bounded by a time budget. The function is evaluated in chunks which grow while evaluations are fast,
+ * and the budget is checked between chunks. Once it is exhausted, the remaining evaluations are skipped, the part of
+ * the curve which has been sampled is drawn, and nothing is cached, so the function is sampled afresh by the next
+ * frame. A frame which has become stale is abandoned in the same way, except that sampling throws a
+ * {@link CancellationException}.
+ * Instances are not thread-safe, but distinct instances may sample concurrently.
+ */
+final class CurveSampler {
+    static final double INITIAL_SPACING_PX = 8;
+    static final double TOLERANCE_PX = 0.5;
+    static final double MIN_SPACING_PX = 1.0 / 16;
+
+    /**
+     * Where the second probe of an interval lies, as a fraction of its width, in addition to its midpoint.
+     * The fraction is {@code (5 - sqrt(5)) / 10}, which is irrational and close to a quarter.
+     */
+    static final double PROBE_FRACTION = (5 - Math.sqrt(5)) / 10;
+
+    /**
+     * Refinement stops once the function has been evaluated this many times per pixel column,
+     * so that pathological functions like {@code sin(1/x)} have a bounded cost.
+     */
+    static final int EVALUATION_BUDGET_PER_COLUMN = 4;
+
+    /**
+     * The evaluation budget of a preview, which is drawn while the user is panning or zooming. Previews are not cached,
+     * so the function is sampled at full quality once the gesture has ended.
+     */
+    static final double PREVIEW_EVALUATION_BUDGET_PER_COLUMN = 0.25;
+
+
+    /**
+     * Evaluation passes which are no larger than this are never split across threads.
+     */
+    static final int PARALLEL_GRAIN = 32;
+
+    /**
+     * The time budget and staleness are checked at least this often while evaluating a function, unless a single
+     * evaluation takes longer. Chunks of evaluations which complete sooner are doubled, up to {@link #MAX_CHUNK}.
+     */
+    static final long CHUNK_NANOS = 1_000_000;
+    static final int MAX_CHUNK = 256;
+
+    private CartesianPlaneViewport viewport;
+    private ForkJoinPool pool;
+
+    // The key under which the samples of the most recently sampled function were cached
+    private SampleKey lastKey = null;
+
+    // Working buffers into which a range is sampled before it is merged into the cached samples.
+    // intervals[i] describes the interval between sample i and sample i + 1.
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+    private byte[] intervals = new byte[0];
+    private int size = 0;
+
+    // Holds the samples of a preview, which are not cached
+    private final CurveSamples previewSamples = new CurveSamples(0);
+
+    // Scratch buffers used while refining
+    private double[] nextXs = new double[0];
+    private double[] nextYs = new double[0];
+    private byte[] nextIntervals = new byte[0];
+    // The probe and midpoint of every interval being refined, in that order, so that both are evaluated by one call
+    private double[] midXs = new double[0];
+    private double[] midYs = new double[0];
+
+    // The on-screen polyline, broken wherever the curve is
+    private final PolylineBuffer polyline = new PolylineBuffer();
+
+    private int evaluationCount = 0;
+
+    private long samplingNanos = 0;
+
+    private Deadline deadline = null;
+
+    /**
+     * When sampling must stop. Shared by every task which evaluates the function being sampled.
+     */
+    private static final class Deadline {
+        private final long start;
+        private final long budgetNanos;
+        private final BooleanSupplier stale;
+        private volatile boolean exceeded = false;
+
+        Deadline(long start, long budgetNanos, BooleanSupplier stale) {
+            this.start = start;
+            this.budgetNanos = budgetNanos;
+            this.stale = stale;
+        }
+
+        /**
+         * Whether evaluation may continue at the given time.
+         * @throws CancellationException if the frame has become stale
+         */
+        boolean check(long now) {
+            if (stale.getAsBoolean()) throw new CancellationException();
+            // Compares elapsed times, which cannot overflow, instead of the time with start + budgetNanos
+            if (!exceeded && now - start > budgetNanos) exceeded = true;
+            return !exceeded;
+        }
+    }
+
+    /**
+     * Samples the given function across the visible width of the given viewport, reusing whichever samples the given
+     * cache holds for the current zoom level. If a pool is given, every pass of evaluations which is larger than
+     * {@link #PARALLEL_GRAIN} is split into chunks which are evaluated on the pool. This method blocks until
+     * sampling is complete. If it is invoked from a worker thread of the given pool, the calling thread participates
+     * in the evaluation instead of idling.
+     *
+     * If a preview is requested, and the cache holds no samples for the current zoom level, the function is sampled
+     * coarsely instead, and the samples are not cached.
+     *
+     * @param budgetNanos the time after which sampling stops, which may be {@link Long#MAX_VALUE}
+     * @param stale checked periodically while sampling, and if it returns true sampling is abandoned
+     * @throws CancellationException if sampling was abandoned because the frame became stale
+     */
+    void sample(DoubleUnaryOperator f, CartesianPlaneViewport viewport, SampleCache cache, ForkJoinPool pool,
+                boolean preview, long budgetNanos, BooleanSupplier stale) {
+        requireNonNull(f);
+        requireNonNull(cache);
+        requireNonNull(stale);
+        if (budgetNanos <= 0) throw new IllegalArgumentException();
+        final long start = System.nanoTime();
+        this.viewport = requireNonNull(viewport);
+        this.pool = pool;
+        this.deadline = new Deadline(start, budgetNanos, stale);
+        polyline.clear();
+        evaluationCount = 0;
+        samplingNanos = 0;
+
+        final int width = viewport.getWidth();
+        if (width <= 0) return;
+
+        final AwtPixelConverter converter = viewport.getConverter();
+        final double xScale = converter.getScale(Axis.X);
+        final double yScale = converter.getScale(Axis.Y);
+        final double fromX = converter.getVisibleMin(Axis.X);
+        final double toX = converter.getVisibleMax(Axis.X);
+
+        // The function plotted under this label has been replaced, its samples will never be used again.
+        if (lastKey != null && lastKey.getFunction() != f) cache.invalidate(lastKey.getFunction());
+        final SampleKey key = SampleKey.of(f, viewport);
+        lastKey = key;
+
+        // Whatever samples were taken from the cache remain valid until they are modified with complete samples,
+        // so they are put back even if sampling is abandoned.
+        CurveSamples samples = cache.take(key);
+        try {
+            final boolean reusable = samples != null && !samples.isEmpty() && samples.getLastX() >= fromX
+                    && samples.getFirstX() <= toX;
+            if (!reusable && preview) {
+                refine(f, fromX, toX, xScale, yScale, PREVIEW_EVALUATION_BUDGET_PER_COLUMN);
+                buildUncachedPolyline(converter);
+            } else if (!reusable) {
+                refine(f, fromX, toX, xScale, yScale, EVALUATION_BUDGET_PER_COLUMN);
+                if (isComplete()) {
+                    if (samples == null) samples = new CurveSamples(size);
+                    samples.set(xs, ys, intervals, size);
+                    buildPolyline(samples, converter);
+                } else {
+                    buildUncachedPolyline(converter);
+                }
+            } else {
+                samples.trim(fromX, toX);
+                if (fromX < samples.getFirstX()) {
+                    refine(f, fromX, samples.getFirstX(), xScale, yScale, EVALUATION_BUDGET_PER_COLUMN);
+                    if (isComplete()) {
+                        samples.prepend(xs, ys, intervals, size);
+                    } else {
+                        buildUncachedPolyline(converter);
+                    }
+                }
+                if (toX > samples.getLastX() && isComplete()) {
+                    refine(f, samples.getLastX(), toX, xScale, yScale, EVALUATION_BUDGET_PER_COLUMN);
+                    if (isComplete()) {
+                        samples.append(xs, ys, intervals, size);
+                    } else {
+                        buildUncachedPolyline(converter);
+                    }
+                }
+                buildPolyline(samples, converter);
+            }
+        } finally {
+            if (samples != null) cache.put(key, samples);
+            samplingNanos = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Whether the most recently sampled function was sampled completely within its time budget.
+     */
+    boolean isComplete() {
+        return deadline == null || !deadline.exceeded;
+    }
+
+    /**
+     * Adds the samples in the working buffers to the polyline, without caching them.
+     */
+    private void buildUncachedPolyline(AwtPixelConverter converter) {
+        previewSamples.set(xs, ys, intervals, size);
+        buildPolyline(previewSamples, converter);
+    }
+
+    /**
+     * Discards the cached samples of the most recently sampled function, at every zoom level.
+     */
+    void invalidate(SampleCache cache) {
+        if (lastKey != null) cache.invalidate(lastKey.getFunction());
+        lastKey = null;
+    }
+
+    /**
+     * Adaptively samples the range {@code [fromX, toX]} into the working buffers. The first and last samples
+     * lie exactly on the bounds of the range. Refinement stops once the function has been evaluated
+     * {@code budgetPerColumn} times per pixel column, although the initial grid is always evaluated.
+     */
+    private void refine(DoubleUnaryOperator f, double fromX, double toX, double xScale, double yScale,
+                        double budgetPerColumn) {
+        final double columns = (toX - fromX) * xScale;
+        final int budget = evaluationCount + (int) Math.ceil(budgetPerColumn * (Math.ceil(columns) + 1));
+
+        final int initialSize = (int) Math.ceil(columns / INITIAL_SPACING_PX) + 1;
+        ensureSampleCapacity(Math.max(initialSize, 2));
+        for (int i = 0; i < initialSize; i++) {
+            xs[i] = fromX + (Math.min(i * INITIAL_SPACING_PX, columns) / xScale);
+        }
+        xs[initialSize - 1] = toX;
+        evaluate(f, xs, ys, initialSize);
+        for (int i = 0; i + 1 < initialSize; i++) {
+            intervals[i] = classify(ys[i], ys[i + 1]);
+        }
+        size = initialSize;
+
+        while (true) {
+            int midCount = 0;
+            for (int i = 0; i + 1 < size; i++) {
+                if (intervals[i] != UNSETTLED) continue;
+                final boolean tooNarrow = (xs[i + 1] - xs[i]) * xScale <= MIN_SPACING_PX;
+                if (tooNarrow || evaluationCount + midCount >= budget || deadline.exceeded) {
+                    intervals[i] = isDiscontinuity(i, yScale) ? BROKEN : SETTLED;
+                    continue;
+                }
+                ensureMidCapacity(midCount + 2);
+                midXs[midCount++] = xs[i] + ((xs[i + 1] - xs[i]) * PROBE_FRACTION);
+                midXs[midCount++] = (xs[i] + xs[i + 1]) / 2;
+            }
+            if (midCount == 0) break;
+            evaluate(f, midXs, midYs, midCount);
+
+            ensureNextCapacity(size + midCount);
+            int next = 0;
+            int mid = 0;
+            for (int i = 0; i < size; i++) {
+                nextXs[next] = xs[i];
+                nextYs[next] = ys[i];
+                if (i + 1 == size) {
+                    next++;
+                    break;
+                }
+                if (intervals[i] != UNSETTLED) {
+                    nextIntervals[next++] = intervals[i];
+                    continue;
+                }
+                final double probeY = midYs[mid];
+                final double midY = midYs[mid + 1];
+                final boolean straight = isStraight(ys[i], probeY, PROBE_FRACTION, ys[i + 1], yScale)
+                        && isStraight(ys[i], midY, 0.5, ys[i + 1], yScale);
+                // Both probes are kept as samples, so neither evaluation is wasted
+                nextIntervals[next++] = straight ? SETTLED : classify(ys[i], probeY);
+                nextXs[next] = midXs[mid];
+                nextYs[next] = probeY;
+                nextIntervals[next++] = straight ? SETTLED : classify(probeY, midY);
+                nextXs[next] = midXs[mid + 1];
+                nextYs[next] = midY;
+                nextIntervals[next++] = straight ? SETTLED : classify(midY, ys[i + 1]);
+                mid += 2;
+            }
+            swapBuffers();
+            size = next;
+        }
+    }
+
+    private void evaluate(DoubleUnaryOperator f, double[] xs, double[] ys, int length) {
+        if (pool == null || length <= PARALLEL_GRAIN) {
+            evaluationCount += evaluate(f, xs, ys, 0, length, deadline);
+        } else {
+            final var task = new EvaluationTask(f, xs, ys, 0, length, deadline);
+            if (ForkJoinTask.getPool() == pool) {
+                evaluationCount += task.invoke();
+            } else {
+                evaluationCount += pool.invoke(task);
+            }
+        }
+    }
+
+    /**
+     * Evaluates the given range in chunks, checking the deadline before every chunk. Once the budget is exceeded,
+     * the values which have not been evaluated yet are set to NaN.
+     * @return the number of values which were evaluated
+     */
+    private static int evaluate(DoubleUnaryOperator f, double[] xs, double[] ys, int from, int to,
+                                Deadline deadline) {
+        int chunk = 1;
+        long now = System.nanoTime();
+        for (int i = from; i < to; ) {
+            if (!deadline.check(now)) {
+                Arrays.fill(ys, i, to, Double.NaN);
+                return i - from;
+            }
+            final int end = Math.min(to, i + chunk);
+            if (f instanceof BatchFunction) {
+                ((BatchFunction) f).applyAsDouble(xs, ys, i, end - i);
+            } else {
+                for (int j = i; j < end; j++) {
+                    ys[j] = f.applyAsDouble(xs[j]);
+                }
+            }
+            i = end;
+            final long after = System.nanoTime();
+            if (after - now < CHUNK_NANOS) chunk = Math.min(chunk * 2, MAX_CHUNK);
+            now = after;
+        }
+        return to - from;
+    }
+
+    /**
+     * Evaluates a range of x values by recursively splitting it in half until each half contains no
+     * more than {@link #PARALLEL_GRAIN} values, and returns the number of values which were evaluated.
+     */
+    private static final class EvaluationTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final DoubleUnaryOperator f;
+        private final double[] xs;
+        private final double[] ys;
+        private final int from;
+        private final int to;
+        private final Deadline deadline;
+
+        EvaluationTask(DoubleUnaryOperator f, double[] xs, double[] ys, int from, int to, Deadline deadline) {
+            this.f = f;
+            this.xs = xs;
+            this.ys = ys;
+            this.from = from;
+            this.to = to;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= PARALLEL_GRAIN) {
+                return evaluate(f, xs, ys, from, to, deadline);
+            }
+            final int mid = (from + to) >>> 1;
+            final var left = new EvaluationTask(f, xs, ys, from, mid, deadline);
+            final var right = new EvaluationTask(f, xs, ys, mid, to, deadline);
+            invokeAll(left, right);
+            return left.join() + right.join();
+        }
+    }
+
+    /**
+     * Classifies a freshly created interval. Intervals which are undefined at both ends are
+     * treated as gaps and are not refined any further.
+     */
+    private static byte classify(double y1, double y2) {
+        if (!Double.isFinite(y1) && !Double.isFinite(y2)) return BROKEN;
+        return UNSETTLED;
+    }
+
+    /**
+     * Whether the given probe, at the given fraction of the width of an interval, lies on the interval's chord.
+     */
+    private static boolean isStraight(double y1, double probeY, double fraction, double y2, double yScale) {
+        if (!Double.isFinite(y1) || !Double.isFinite(probeY) || !Double.isFinite(y2)) return false;
+        return Math.abs(probeY - (y1 + ((y2 - y1) * fraction))) * yScale <= TOLERANCE_PX;
+    }
+
+    /**
+     * Whether the curve should be broken within the interval following sample {@code i}, which cannot be refined.
+     */
+    private boolean isDiscontinuity(int i, double yScale) {
+        final double y1 = ys[i];
+        final double y2 = ys[i + 1];
+        if (!Double.isFinite(y1) || !Double.isFinite(y2)) return true;
+        if (Math.abs(y2 - y1) * yScale <= viewport.getHeight()) return false;
+        if (Math.signum(y1) != Math.signum(y2)) return true;
+        // A pole which does not change sign is approached from both sides, so the neighboring intervals both rise
+        // towards it, or both fall towards it. A steep but continuous curve rises on one side and falls on the other.
+        final double fromLeft = i > 0 ? y1 - ys[i - 1] : Double.NaN;
+        final double fromRight = i + 2 < size ? y2 - ys[i + 2] : Double.NaN;
+        return (fromLeft > 0 && fromRight > 0) || (fromLeft < 0 && fromRight < 0);
+    }
+
+    private void buildPolyline(CurveSamples samples, AwtPixelConverter converter) {
+        final double[] xs = samples.xs;
+        final double[] ys = samples.ys;
+        final byte[] intervals = samples.intervals;
+        boolean joinNext = false;
+        for (int i = 0; i < samples.size; i++) {
+            if (!Double.isFinite(ys[i])) {
+                joinNext = false;
+                continue;
+            }
+            // Functions which shoot off towards infinity are saturated by the converter rather than overflowing.
+            final int x = converter.toScreenX(xs[i]);
+            final int y = converter.toScreenY(ys[i]);
+            if (joinNext) {
+                polyline.lineTo(x, y);
+            } else {
+                polyline.moveTo(x, y);
+            }
+            joinNext = i + 1 < samples.size && intervals[i] != BROKEN;
+        }
+    }
+
+    /**
+     * Draws the most recently sampled function.
+     */
+    void draw(Graphics2D graphics) {
+        polyline.draw(graphics);
+    }
+
+    /**
+     * The number of times the function was evaluated by the most recent call to
+     * {@link #sample(DoubleUnaryOperator, CartesianPlaneViewport, SampleCache, ForkJoinPool, boolean, long,
+     * BooleanSupplier)}.
+     */
+    int getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    /**
+     * The time spent by the most recent invocation of
+     * {@link #sample(DoubleUnaryOperator, CartesianPlaneViewport, SampleCache, ForkJoinPool, boolean, long,
+     * BooleanSupplier)}.
+     */
+    long getSamplingNanos() {
+        return samplingNanos;
+    }
+
+    private void swapBuffers() {
+        final double[] xs = this.xs;
+        this.xs = nextXs;
+        nextXs = xs;
+        final double[] ys = this.ys;
+        this.ys = nextYs;
+        nextYs = ys;
+        final byte[] intervals = this.intervals;
+        this.intervals = nextIntervals;
+        nextIntervals = intervals;
+    }
+
+    private void ensureSampleCapacity(int capacity) {
+        if (xs.length >= capacity) return;
+        xs = new double[capacity];
+        ys = new double[capacity];
+        intervals = new byte[capacity];
+    }
+
+    private void ensureNextCapacity(int capacity) {
+        if (nextXs.length >= capacity) return;
+        final int newCapacity = Math.max(capacity, nextXs.length * 2);
+        nextXs = new double[newCapacity];
+        nextYs = new double[newCapacity];
+        nextIntervals = new byte[newCapacity];
+    }
+
+    private void ensureMidCapacity(int capacity) {
+        if (midXs.length >= capacity) return;
+        final int newCapacity = Math.max(capacity, midXs.length * 2);
+        midXs = Arrays.copyOf(midXs, newCapacity);
+        midYs = new double[newCapacity];
+    }
+}
@@ -0,0 +1,110 @@
+package com.duncpro.cartesianj.awt;
+
+import java.util.Arrays;
+
+/**
+ * The samples of a single function, in ascending order of x and measured in units rather than pixels.
+ * Because the samples are independent of the viewport's offsets, they remain valid while the viewport is panned,
+ * and only the range which was newly exposed needs to be sampled.
+ */
+final class CurveSamples {
+    static final byte UNSETTLED = 0;
+    static final byte SETTLED = 1;
+    static final byte BROKEN = 2;
+
+    double[] xs;
+    double[] ys;
+    // intervals[i] describes the interval between sample i and sample i + 1.
+    byte[] intervals;
+    int size = 0;
+
+    CurveSamples(int initialCapacity) {
+        xs = new double[initialCapacity];
+        ys = new double[initialCapacity];
+        intervals = new byte[initialCapacity];
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    double getFirstX() {
+        return xs[0];
+    }
+
+    double getLastX() {
+        return xs[size - 1];
+    }
+
+    /**
+     * Discards the samples which are not needed to cover the range {@code [fromX, toX]}.
+     * The samples immediately outside the range are retained, so that the curve still reaches the edges of the range.
+     */
+    void trim(double fromX, double toX) {
+        int first = 0;
+        while (first + 1 < size && xs[first + 1] <= fromX) first++;
+        int last = size - 1;
+        while (last - 1 > first && xs[last - 1] >= toX) last--;
+        final int newSize = last - first + 1;
+        if (first > 0) {
+            System.arraycopy(xs, first, xs, 0, newSize);
+            System.arraycopy(ys, first, ys, 0, newSize);
+            System.arraycopy(intervals, first, intervals, 0, newSize);
+        }
+        size = newSize;
+    }
+
+    /**
+     * Replaces the contents of this object with the given samples.
+     */
+    void set(double[] xs, double[] ys, byte[] intervals, int count) {
+        ensureCapacity(count);
+        System.arraycopy(xs, 0, this.xs, 0, count);
+        System.arraycopy(ys, 0, this.ys, 0, count);
+        System.arraycopy(intervals, 0, this.intervals, 0, count);
+        size = count;
+    }
+
+    /**
+     * Prepends the given samples, the last of which must coincide with the current first sample.
+     */
+    void prepend(double[] xs, double[] ys, byte[] intervals, int count) {
+        final int added = count - 1;
+        ensureCapacity(size + added);
+        System.arraycopy(this.xs, 0, this.xs, added, size);
+        System.arraycopy(this.ys, 0, this.ys, added, size);
+        System.arraycopy(this.intervals, 0, this.intervals, added, size);
+        System.arraycopy(xs, 0, this.xs, 0, added);
+        System.arraycopy(ys, 0, this.ys, 0, added);
+        System.arraycopy(intervals, 0, this.intervals, 0, added);
+        size += added;
+    }
+
+    /**
+     * Appends the given samples, the first of which must coincide with the current last sample.
+     */
+    void append(double[] xs, double[] ys, byte[] intervals, int count) {
+        final int added = count - 1;
+        ensureCapacity(size + added);
+        this.intervals[size - 1] = intervals[0];
+        System.arraycopy(xs, 1, this.xs, size, added);
+        System.arraycopy(ys, 1, this.ys, size, added);
+        System.arraycopy(intervals, 1, this.intervals, size, added);
+        size += added;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (xs.length >= capacity) return;
+        final int newCapacity = Math.max(capacity, xs.length + (xs.length >> 1));
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+        intervals = Arrays.copyOf(intervals, newCapacity);
+    }
+
+    /**
+     * An estimate of the number of bytes retained by this object.
+     */
+    long getRetainedBytes() {
+        return 64L + (xs.length * (Double.BYTES + Double.BYTES + Byte.BYTES));
+    }
+}
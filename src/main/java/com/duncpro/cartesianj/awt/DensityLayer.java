@@ -0,0 +1,163 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.Axis;
+import com.duncpro.cartesianj.CartesianPlane;
+import com.duncpro.cartesianj.CartesianPlaneViewport;
+import com.duncpro.cartesianj.PlaneSnapshot;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Draws the points of a plane as a density raster rather than as individual markers. The visible area is divided
+ * into square cells, and each cell is colored by the number of points which fall within it. Counts are mapped onto
+ * {@link AwtUtil#densityColorMap()} logarithmically, so that sparse cells remain visible next to dense ones.
+ * Empty cells are left transparent.
+ *
+ * The counts are retained between frames. While the viewport is unchanged, a frame only bins the points plotted since
+ * the previous frame, so the cost of a frame grows with the number of new points rather than the number of plotted
+ * points. Whenever the viewport is resized, panned or zoomed the visible points are binned again from scratch, using
+ * the plane's spatial index. While previewing, the previous raster is instead stretched and moved onto the new
+ * viewport, and binned again once the preview is over.
+ *
+ * Instances are not thread-safe.
+ */
+final class DensityLayer {
+    private static final int[] PALETTE = createPalette(256);
+
+    // The viewport which the counts were binned for
+    private CartesianPlane plane = null;
+    private int width;
+    private int height;
+    private int cellSize;
+    private double xScale;
+    private double yScale;
+    // The position of the origin within the viewport
+    private double originX;
+    private double originY;
+
+    private int columns;
+    private int rows;
+    private int[] counts = new int[0];
+    private int maxCount = 0;
+
+    // The number of points which fall within the raster
+    private int binnedVisibleCount = 0;
+
+    // The number of points, in plotting order, which have been binned
+    private int binnedCount = 0;
+
+    private BufferedImage image = null;
+    private boolean dirty = true;
+
+    private static int[] createPalette(int size) {
+        final int[] palette = new int[size];
+        for (int i = 0; i < size; i++) {
+            palette[i] = AwtUtil.densityColorMap().apply((double) i / (size - 1)).getRGB();
+        }
+        return palette;
+    }
+
+    void draw(Graphics2D graphics, CartesianPlaneViewport viewport, PlaneSnapshot snapshot, int cellSize,
+              boolean preview) {
+        final CartesianPlane plane = viewport.getPlane();
+        final AwtPixelConverter converter = viewport.getConverter();
+        final double xScale = converter.getScale(Axis.X);
+        final double yScale = converter.getScale(Axis.Y);
+        final double originX = converter.getOriginPosition(Axis.X);
+        final double originY = converter.getOriginPosition(Axis.Y);
+        final boolean rasterReusable = plane == this.plane && cellSize == this.cellSize && image != null;
+        final boolean viewChanged = viewport.getWidth() != width || viewport.getHeight() != height
+                || xScale != this.xScale || yScale != this.yScale || originX != this.originX || originY != this.originY;
+        if (preview && rasterReusable && viewChanged) {
+            drawReprojected(graphics, xScale, yScale, originX, originY);
+            return;
+        }
+        if (!rasterReusable || viewChanged) {
+            this.plane = plane;
+            this.width = viewport.getWidth();
+            this.height = viewport.getHeight();
+            this.cellSize = cellSize;
+            this.xScale = xScale;
+            this.yScale = yScale;
+            this.originX = originX;
+            this.originY = originY;
+            rebin();
+        } else if (snapshot.getPointCount() > binnedCount) {
+            // A rebin may already have binned points which were plotted after the snapshot was taken.
+            snapshot.forEachPoint(binnedCount, snapshot.getPointCount(), this::bin);
+            binnedCount = snapshot.getPointCount();
+        }
+
+        if (columns == 0 || rows == 0) return;
+        if (dirty) paintImage();
+        graphics.drawImage(image, 0, 0, columns * cellSize, rows * cellSize, null);
+    }
+
+    /**
+     * Draws the current raster onto a viewport which has been panned or zoomed since the raster was binned,
+     * without binning it again.
+     */
+    private void drawReprojected(Graphics2D graphics, double xScale, double yScale, double originX, double originY) {
+        if (dirty) paintImage();
+        // A pixel of the old viewport at screen position p lies at
+        // originX + (p - this.originX) * (xScale / this.xScale)
+        final double xStretch = xScale / this.xScale;
+        final double yStretch = yScale / this.yScale;
+        final var transform = new AffineTransform(xStretch * cellSize, 0, 0, yStretch * cellSize,
+                originX - (this.originX * xStretch), originY - (this.originY * yStretch));
+        graphics.drawImage(image, transform, null);
+    }
+
+    private void rebin() {
+        columns = Math.max(0, (width + cellSize - 1) / cellSize);
+        rows = Math.max(0, (height + cellSize - 1) / cellSize);
+        if (counts.length == columns * rows) {
+            Arrays.fill(counts, 0);
+        } else {
+            counts = new int[columns * rows];
+        }
+        if (image == null || image.getWidth() != columns || image.getHeight() != rows) {
+            image = columns > 0 && rows > 0 ? new BufferedImage(columns, rows, BufferedImage.TYPE_INT_ARGB) : null;
+        }
+        maxCount = 0;
+        binnedVisibleCount = 0;
+        dirty = true;
+        binnedCount = plane.forEachPointWithin(
+                -originX / xScale, (originY - height) / yScale,
+                (width - originX) / xScale, originY / yScale,
+                this::bin);
+    }
+
+    private void bin(double x, double y) {
+        final double xPx = originX + (x * xScale);
+        final double yPx = originY - (y * yScale);
+        // Also rejects NaN coordinates
+        if (!(xPx >= 0 && xPx < columns * cellSize && yPx >= 0 && yPx < rows * cellSize)) return;
+        final int cell = (((int) yPx / cellSize) * columns) + ((int) xPx / cellSize);
+        binnedVisibleCount++;
+        final int count = ++counts[cell];
+        if (count > maxCount) maxCount = count;
+        dirty = true;
+    }
+
+    /**
+     * The number of points which were drawn into the raster by the most recent frame.
+     */
+    int getVisiblePointCount() {
+        return binnedVisibleCount;
+    }
+
+    private void paintImage() {
+        final int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        final double scale = (PALETTE.length - 1) / Math.log1p(Math.max(1, maxCount));
+        for (int i = 0; i < counts.length; i++) {
+            final int count = counts[i];
+            pixels[i] = count == 0 ? 0 : PALETTE[(int) (Math.log1p(count) * scale)];
+        }
+        dirty = false;
+    }
+}
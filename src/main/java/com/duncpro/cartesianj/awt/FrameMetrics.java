@@ -0,0 +1,188 @@
+package com.duncpro.cartesianj.awt;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Describes how a single frame of a viewport was rendered, in order to find out why a plot is slow.
+ * Times are measured in nanoseconds. Instances are immutable.
+ *
+ * The time spent on a function includes both sampling and drawing it. If functions are sampled in parallel,
+ * their times overlap, and their sum may exceed {@link #getFunctionsNanos()}.
+ *
+ * @see AwtCartesianPlaneViewport#addMetricsListener(FrameMetricsListener)
+ */
+public final class FrameMetrics {
+    private final long planeVersion;
+    private final long frameNanos;
+    private final long axesNanos;
+    private final long functionsNanos;
+    private final long seriesNanos;
+    private final long pointsNanos;
+    private final long labelsNanos;
+    private final SortedMap<String, Long> functionNanos;
+    private final SortedMap<String, Integer> functionEvaluations;
+    private final SortedSet<String> incompleteFunctions;
+    private final int pointsDrawn;
+    private final int pointsSkipped;
+    private final int pointsCulled;
+    private final boolean densityMode;
+    private final long changeEventsReceived;
+    private final long framesRendered;
+
+    FrameMetrics(long planeVersion, long frameNanos, long axesNanos, long functionsNanos, long seriesNanos,
+                 long pointsNanos, long labelsNanos, SortedMap<String, Long> functionNanos,
+                 SortedMap<String, Integer> functionEvaluations, SortedSet<String> incompleteFunctions,
+                 int pointsDrawn, int pointsSkipped, int pointsCulled,
+                 boolean densityMode, long changeEventsReceived, long framesRendered) {
+        this.planeVersion = planeVersion;
+        this.frameNanos = frameNanos;
+        this.axesNanos = axesNanos;
+        this.functionsNanos = functionsNanos;
+        this.seriesNanos = seriesNanos;
+        this.pointsNanos = pointsNanos;
+        this.labelsNanos = labelsNanos;
+        this.functionNanos = requireNonNull(functionNanos);
+        this.functionEvaluations = requireNonNull(functionEvaluations);
+        this.incompleteFunctions = requireNonNull(incompleteFunctions);
+        this.pointsDrawn = pointsDrawn;
+        this.pointsSkipped = pointsSkipped;
+        this.pointsCulled = pointsCulled;
+        this.densityMode = densityMode;
+        this.changeEventsReceived = changeEventsReceived;
+        this.framesRendered = framesRendered;
+    }
+
+    /**
+     * Returns a copy of these metrics with the given counters of the viewport which rendered the frame.
+     */
+    FrameMetrics withViewportCounters(long changeEventsReceived, long framesRendered) {
+        return new FrameMetrics(planeVersion, frameNanos, axesNanos, functionsNanos, seriesNanos, pointsNanos,
+                labelsNanos, functionNanos, functionEvaluations, incompleteFunctions, pointsDrawn, pointsSkipped,
+                pointsCulled, densityMode, changeEventsReceived, framesRendered);
+    }
+
+    /**
+     * The version of the plane snapshot which was rendered.
+     */
+    public long getPlaneVersion() {
+        return planeVersion;
+    }
+
+    public long getFrameNanos() {
+        return frameNanos;
+    }
+
+    public long getAxesNanos() {
+        return axesNanos;
+    }
+
+    /**
+     * The time spent sampling and drawing all functions.
+     */
+    public long getFunctionsNanos() {
+        return functionsNanos;
+    }
+
+    public long getSeriesNanos() {
+        return seriesNanos;
+    }
+
+    public long getPointsNanos() {
+        return pointsNanos;
+    }
+
+    /**
+     * The time spent drawing the step size labels and the debug overlay.
+     */
+    public long getLabelsNanos() {
+        return labelsNanos;
+    }
+
+    /**
+     * The time spent sampling and drawing each function, keyed by label.
+     */
+    public SortedMap<String, Long> getFunctionNanos() {
+        return functionNanos;
+    }
+
+    /**
+     * The number of times each function was evaluated, keyed by label. Functions whose samples were cached are not
+     * evaluated at all.
+     */
+    public SortedMap<String, Integer> getFunctionEvaluations() {
+        return functionEvaluations;
+    }
+
+    /**
+     * The labels of the functions which could not be sampled within their time budget, and were therefore drawn
+     * partially or not at all.
+     */
+    public SortedSet<String> getIncompleteFunctions() {
+        return incompleteFunctions;
+    }
+
+    public int getEvaluationCount() {
+        int count = 0;
+        for (int evaluations : functionEvaluations.values()) count += evaluations;
+        return count;
+    }
+
+    /**
+     * The label of the function which took the longest to sample and draw.
+     */
+    public Optional<String> getSlowestFunction() {
+        return functionNanos.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey);
+    }
+
+    /**
+     * The number of points which were drawn, either as markers or as part of the density raster.
+     */
+    public int getPointsDrawn() {
+        return pointsDrawn;
+    }
+
+    /**
+     * The number of visible points which were not drawn as markers, either because only every so many points are drawn
+     * while previewing, or because their marker would have covered exactly the pixels of another marker.
+     */
+    public int getPointsSkipped() {
+        return pointsSkipped;
+    }
+
+    /**
+     * The number of points which were not drawn because they lie outside the visible part of the plane.
+     */
+    public int getPointsCulled() {
+        return pointsCulled;
+    }
+
+    /**
+     * Whether points were aggregated into a density raster instead of being drawn as markers.
+     */
+    public boolean isDensityMode() {
+        return densityMode;
+    }
+
+    /**
+     * The number of plane change events which the viewport had received when this frame was rendered.
+     */
+    public long getChangeEventsReceived() {
+        return changeEventsReceived;
+    }
+
+    /**
+     * The number of frames, including this one, which the viewport had rendered. Change events which arrive in
+     * quick succession are coalesced into a single frame, so this is usually far lower than
+     * {@link #getChangeEventsReceived()}.
+     */
+    public long getFramesRendered() {
+        return framesRendered;
+    }
+}
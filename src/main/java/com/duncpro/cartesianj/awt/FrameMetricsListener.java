@@ -0,0 +1,11 @@
+package com.duncpro.cartesianj.awt;
+
+/**
+ * Receives the {@link FrameMetrics} of every frame a viewport renders. Listeners are invoked on the thread which
+ * rendered the frame, which is either the event dispatch thread or the background render thread, so they should
+ * return quickly.
+ */
+@FunctionalInterface
+public interface FrameMetricsListener {
+    void onFrameRendered(FrameMetrics metrics);
+}
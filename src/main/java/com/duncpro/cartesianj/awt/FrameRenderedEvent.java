@@ -0,0 +1,60 @@
+package com.duncpro.cartesianj.awt;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded by Java Flight Recorder for every frame which is rendered. The duration of the event is the time taken
+ * to render the frame.
+ */
+@Name("com.duncpro.cartesianj.FrameRendered")
+@Label("Frame Rendered")
+@Category("CartesianJ")
+@Description("A frame of a Cartesian plane was rendered")
+@StackTrace(false)
+final class FrameRenderedEvent extends jdk.jfr.Event {
+    @Label("Plane Title")
+    String planeTitle;
+
+    @Label("Plane Version")
+    long planeVersion;
+
+    @Label("Axes Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long axesNanos;
+
+    @Label("Functions Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long functionsNanos;
+
+    @Label("Series Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long seriesNanos;
+
+    @Label("Points Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long pointsNanos;
+
+    @Label("Labels Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long labelsNanos;
+
+    @Label("Function Evaluations")
+    int evaluations;
+
+    @Label("Points Drawn")
+    int pointsDrawn;
+
+    @Label("Points Skipped")
+    int pointsSkipped;
+
+    @Label("Points Culled")
+    int pointsCulled;
+
+    @Label("Density Mode")
+    boolean densityMode;
+}
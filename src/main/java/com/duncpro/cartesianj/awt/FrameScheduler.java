@@ -0,0 +1,238 @@
+package com.duncpro.cartesianj.awt;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Decides when the viewports of all windows are drawn. Viewports do not redraw themselves whenever their plane or
+ * their settings change. Instead they are marked dirty, and all dirty viewports are drawn together at most once per
+ * frame interval, so that planes which change thousands of times per second are drawn at the target frame rate,
+ * rather than flooding the event queue with repaints.
+ *
+ * Viewports which render in the background share one pool of render threads. Viewports in the focused window are
+ * drawn first, then the rest of the visible viewports. Viewports which are hidden, or whose window is minimized, are
+ * not drawn at all until they are shown again.
+ *
+ * Rendering can be paused while the planes are being modified in bulk, so that no time is spent drawing states which
+ * are soon outdated. Viewports which become dirty in the meantime are drawn once rendering is resumed. Instances are
+ * thread-safe.
+ */
+public final class FrameScheduler {
+    public static final int DEFAULT_TARGET_FRAME_RATE = 60;
+
+    // The priorities of viewports, in the order in which they are drawn
+    static final int FOCUSED = 0;
+    static final int VISIBLE = 1;
+    static final int HIDDEN = 2;
+
+    /**
+     * The number of frames which are rendered in the background at once. Each frame may sample its functions on
+     * further threads, so only half of the processors are used for rendering.
+     */
+    private static final int RENDER_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private static final FrameScheduler shared = new FrameScheduler();
+
+    /**
+     * The scheduler of every {@link AwtCartesianPlaneViewport}.
+     */
+    public static FrameScheduler getShared() {
+        return shared;
+    }
+
+    private final ScheduledExecutorService clock = Executors.newSingleThreadScheduledExecutor(
+            daemonThreads("CartesianJ Frame Scheduler"));
+
+    // The queue must only ever contain PrioritizedTasks, so tasks are passed to execute, never to submit, which
+    // would wrap them.
+    private final ThreadPoolExecutor renderPool = new ThreadPoolExecutor(RENDER_THREADS, RENDER_THREADS,
+            1, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), daemonThreads("CartesianJ Renderer"));
+
+    // Orders tasks of equal priority by the time they were submitted
+    private final AtomicLong submitted = new AtomicLong();
+
+    // Concurrent, so that the plane changes which arrive while a viewport is dirty already do not contend for the lock
+    private final Set<AwtCartesianPlaneViewport> dirty = ConcurrentHashMap.newKeySet();
+
+    // The following are guarded by this
+    // Dirty viewports which were not drawn because they were hidden. Weakly referenced, since a window may be
+    // disposed without its viewport ever being shown again.
+    private final Set<AwtCartesianPlaneViewport> hidden = Collections.newSetFromMap(new WeakHashMap<>());
+    private long frameIntervalNanos = TimeUnit.SECONDS.toNanos(1) / DEFAULT_TARGET_FRAME_RATE;
+    private long lastFrameNanos = System.nanoTime() - frameIntervalNanos;
+    private boolean frameScheduled = false;
+    private boolean paused = false;
+
+    private FrameScheduler() {
+        renderPool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Sets the number of times per second at which dirty viewports are drawn. Viewports which do not change are not
+     * drawn at all. The default is {@value #DEFAULT_TARGET_FRAME_RATE}.
+     */
+    public synchronized void setTargetFrameRate(int framesPerSecond) {
+        if (framesPerSecond <= 0) throw new IllegalArgumentException();
+        frameIntervalNanos = TimeUnit.SECONDS.toNanos(1) / framesPerSecond;
+    }
+
+    public synchronized int getTargetFrameRate() {
+        return (int) Math.round((double) TimeUnit.SECONDS.toNanos(1) / frameIntervalNanos);
+    }
+
+    /**
+     * Stops drawing viewports after their planes or settings change, until {@link #resume()} is invoked.
+     * Frames which are being rendered already are completed, and windows which are uncovered or resized are still
+     * repainted, though possibly with an outdated frame. Pausing a paused scheduler has no effect.
+     */
+    public synchronized void pause() {
+        paused = true;
+    }
+
+    /**
+     * Resumes drawing viewports, and draws every viewport which changed while rendering was paused.
+     */
+    public synchronized void resume() {
+        paused = false;
+        scheduleFrame();
+    }
+
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Draws the given viewport in the next frame.
+     */
+    void markDirty(AwtCartesianPlaneViewport viewport) {
+        requireNonNull(viewport);
+        if (!dirty.add(viewport)) return;
+        synchronized (this) {
+            hidden.remove(viewport);
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * Invoked whenever the given viewport is painted. A viewport which is painted has been shown, so if it changed
+     * while it was hidden, it is drawn in the next frame.
+     */
+    synchronized void onPainted(AwtCartesianPlaneViewport viewport) {
+        if (hidden.remove(viewport)) {
+            dirty.add(viewport);
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * Renders a frame on the shared render pool. Tasks of viewports with a higher priority are run first.
+     */
+    void render(Runnable task, int priority) {
+        renderPool.execute(new PrioritizedTask(requireNonNull(task), priority, submitted.getAndIncrement()));
+    }
+
+    // Only invoked while holding the lock
+    private void scheduleFrame() {
+        if (frameScheduled || paused || dirty.isEmpty()) return;
+        frameScheduled = true;
+        final long delay = Math.max(0, (lastFrameNanos + frameIntervalNanos) - System.nanoTime());
+        clock.schedule(this::drawFrame, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void drawFrame() {
+        final List<AwtCartesianPlaneViewport> focused = new ArrayList<>();
+        final List<AwtCartesianPlaneViewport> visible = new ArrayList<>();
+        synchronized (this) {
+            frameScheduled = false;
+            if (paused) return;
+            lastFrameNanos = System.nanoTime();
+            // Viewports are classified while holding the lock. A viewport which is shown after it has been found
+            // hidden is therefore painted after it was added to the hidden viewports, and is drawn once painted.
+            // Each viewport is removed before it is classified, so that a change which arrives in the meantime
+            // marks it dirty again, and schedules another frame.
+            for (AwtCartesianPlaneViewport viewport : dirty) {
+                dirty.remove(viewport);
+                switch (priorityOf(viewport)) {
+                    case FOCUSED:
+                        focused.add(viewport);
+                        break;
+                    case VISIBLE:
+                        visible.add(viewport);
+                        break;
+                    default:
+                        hidden.add(viewport);
+                }
+            }
+        }
+        focused.forEach(FrameScheduler::draw);
+        visible.forEach(FrameScheduler::draw);
+    }
+
+    private static void draw(AwtCartesianPlaneViewport viewport) {
+        try {
+            viewport.drawScheduledFrame();
+        } catch (RuntimeException e) {
+            // A viewport which fails to draw must not prevent the other viewports, or later frames, from being drawn
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    /**
+     * Whether the given component is in the focused window, or at least visible on the screen.
+     */
+    static int priorityOf(Component component) {
+        if (!component.isShowing()) return HIDDEN;
+        Container ancestor = component.getParent();
+        while (ancestor != null && !(ancestor instanceof Window)) ancestor = ancestor.getParent();
+        if (ancestor == null) return VISIBLE;
+        final Window window = (Window) ancestor;
+        if (window instanceof Frame && (((Frame) window).getExtendedState() & Frame.ICONIFIED) != 0) return HIDDEN;
+        return window.isFocused() ? FOCUSED : VISIBLE;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            final var thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+        private final Runnable task;
+        private final int priority;
+        private final long sequence;
+
+        PrioritizedTask(Runnable task, int priority, long sequence) {
+            this.task = task;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask other) {
+            if (priority != other.priority) return Integer.compare(priority, other.priority);
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
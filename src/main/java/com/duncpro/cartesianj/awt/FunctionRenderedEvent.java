@@ -0,0 +1,38 @@
+package com.duncpro.cartesianj.awt;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Recorded by Java Flight Recorder for every function which is drawn within a frame. Functions may be sampled in
+ * parallel before any of them is drawn, so the time taken is recorded in fields rather than as the event's duration.
+ */
+@Name("com.duncpro.cartesianj.FunctionRendered")
+@Label("Function Rendered")
+@Category("CartesianJ")
+@Description("A plotted function was sampled for a frame")
+@StackTrace(false)
+final class FunctionRenderedEvent extends jdk.jfr.Event {
+    @Label("Label")
+    String label;
+
+    @Label("Evaluations")
+    int evaluations;
+
+    @Label("Complete")
+    @Description("Whether the function was sampled completely within its time budget")
+    boolean complete;
+
+    @Label("Sampling Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long samplingNanos;
+
+    @Label("Total Time")
+    @Description("The time taken to sample and draw the function")
+    @Timespan(Timespan.NANOSECONDS)
+    long totalNanos;
+}
@@ -0,0 +1,173 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.Axis;
+import com.duncpro.cartesianj.CartesianPlane;
+import com.duncpro.cartesianj.CartesianPlaneViewport;
+import com.duncpro.cartesianj.Direction;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A viewport which is not backed by any AWT component. It holds the same settings as
+ * {@link AwtCartesianPlaneViewport}, but its size is set explicitly, and it can be rendered into an image using
+ * {@link HeadlessRenderer} on machines without a display.
+ *
+ * Instances are not thread-safe.
+ */
+public class HeadlessCartesianPlaneViewport implements CartesianPlaneViewport {
+    private final CartesianPlane plane;
+    private final AwtPixelConverter converter;
+    private int width;
+    private int height;
+
+    public HeadlessCartesianPlaneViewport(CartesianPlane plane, int width, int height) {
+        this.plane = requireNonNull(plane);
+        this.converter = new AwtPixelConverter(this);
+        setSize(width, height);
+    }
+
+    /**
+     * Creates a viewport with the same plane, size and settings as the given viewport.
+     */
+    public HeadlessCartesianPlaneViewport(CartesianPlaneViewport viewport) {
+        this(viewport.getPlane(), viewport.getWidth(), viewport.getHeight());
+        this.xTickWidth = viewport.getVisualStepSize(Axis.X);
+        this.yTickWidth = viewport.getVisualStepSize(Axis.Y);
+        this.xAxisStepSize = viewport.getQuantitativeStepSize(Axis.X);
+        this.yAxisStepSize = viewport.getQuantitativeStepSize(Axis.Y);
+        this.horizontalOffset = viewport.getPreciseOffset(Direction.HORIZONTAL);
+        this.verticalOffset = viewport.getPreciseOffset(Direction.VERTICAL);
+    }
+
+    public void setSize(int width, int height) {
+        if (width < 0 || height < 0) throw new IllegalArgumentException();
+        this.width = width;
+        this.height = height;
+        converter.invalidate();
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getXAxisPosition() {
+        return (getHeight() / 2) + getOffset(Direction.VERTICAL);
+    }
+
+    @Override
+    public int getYAxisPosition() {
+        return (getWidth() / 2) + getOffset(Direction.HORIZONTAL);
+    }
+
+    private int yTickWidth = 20;
+    private int xTickWidth = 20;
+    @Override
+    @SuppressWarnings("DuplicatedCode")
+    public void setVisualStepSize(Axis axis, int size) {
+        if (size <= 0) throw new IllegalArgumentException();
+        switch (axis) {
+            case X:
+                xTickWidth = size;
+                break;
+            case Y:
+                yTickWidth = size;
+                break;
+        }
+        converter.invalidate();
+    }
+    @Override
+    public int getVisualStepSize(Axis axis) {
+        requireNonNull(axis);
+        switch (axis) {
+            case X:
+                return xTickWidth;
+            case Y:
+                return yTickWidth;
+        }
+        throw new AssertionError();
+    }
+
+    private double xAxisStepSize = 1;
+    private double yAxisStepSize = 1;
+    @Override
+    @SuppressWarnings("DuplicatedCode")
+    public void setQuantitativeStepSize(Axis axis, double stepSize) {
+        if (stepSize <= 0) throw new IllegalArgumentException();
+        switch (axis) {
+            case X:
+                xAxisStepSize = stepSize;
+                break;
+            case Y:
+                yAxisStepSize = stepSize;
+                break;
+        }
+        converter.invalidate();
+    }
+    @Override
+    public double getQuantitativeStepSize(Axis axis) {
+        requireNonNull(axis);
+        switch (axis) {
+            case X:
+                return xAxisStepSize;
+            case Y:
+                return yAxisStepSize;
+        }
+        throw new AssertionError();
+    }
+
+    private double horizontalOffset = 0;
+    private double verticalOffset = 0;
+    @Override
+    public int getOffset(Direction direction) {
+        return (int) Math.round(getPreciseOffset(direction));
+    }
+
+    @Override
+    public double getPreciseOffset(Direction direction) {
+        requireNonNull(direction);
+        switch (direction) {
+            case HORIZONTAL:
+                return horizontalOffset;
+            case VERTICAL:
+                return verticalOffset;
+        }
+        throw new AssertionError();
+    }
+
+    @Override
+    public void setOffset(Direction dimension, int newOffset) {
+        setOffset(dimension, (double) newOffset);
+    }
+
+    @Override
+    public void setOffset(Direction dimension, double newOffset) {
+        requireNonNull(dimension);
+        if (!Double.isFinite(newOffset)) throw new IllegalArgumentException();
+        switch (dimension) {
+            case HORIZONTAL:
+                horizontalOffset = newOffset;
+                break;
+            case VERTICAL:
+                verticalOffset = newOffset;
+                break;
+        }
+        converter.invalidate();
+    }
+
+    @Override
+    public AwtPixelConverter getConverter() {
+        return converter;
+    }
+
+    @Override
+    public CartesianPlane getPlane() {
+        return plane;
+    }
+}
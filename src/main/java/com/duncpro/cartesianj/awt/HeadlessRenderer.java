@@ -0,0 +1,232 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.CartesianPlaneViewport;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Renders viewports into images without opening any window, for instance to export plots on a server which has
+ * no display. Frames are drawn by the same logic as {@link AwtCartesianPlaneViewport}, so an exported image is
+ * identical to what the viewport would show on screen.
+ *
+ * Any {@link CartesianPlaneViewport} can be rendered. {@link HeadlessCartesianPlaneViewport} is a convenient way to
+ * specify the size, step sizes and offsets of an image. The viewport's settings are copied before rendering begins.
+ *
+ * Unlike a viewport on screen, a renderer samples every function for as long as it takes by default, so that an
+ * exported image never depends on how busy the machine was. See {@link #setFunctionTimeBudget(Duration)}.
+ *
+ * The bulk methods render many viewports concurrently on the renderer's executor. Every thread which renders
+ * retains its own image buffer and sample buffers, so rendering many images of the same size does not allocate
+ * a new image per plot. Instances are thread-safe.
+ */
+public final class HeadlessRenderer {
+    private final ExecutorService executor;
+    private volatile RenderSettings settings;
+    private volatile Color background = Color.WHITE;
+    private volatile Color foreground = Color.BLACK;
+
+    // The renderer and image buffer of each thread which renders
+    private final ThreadLocal<RenderContext> contexts = ThreadLocal.withInitial(RenderContext::new);
+
+    private static final class RenderContext {
+        final PlaneRenderer renderer = new PlaneRenderer();
+        BufferedImage image = null;
+
+        BufferedImage getImage(int width, int height) {
+            if (image == null || image.getWidth() != width || image.getHeight() != height) {
+                image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            }
+            return image;
+        }
+    }
+
+    /**
+     * @param executor the executor on which the bulk methods render
+     * @param cache the cache in which function samples are kept between renders
+     */
+    public HeadlessRenderer(ExecutorService executor, SampleCache cache) {
+        this.executor = requireNonNull(executor);
+        // Exported images rarely show the same tiles, so they are kept apart from those of the viewports on screen
+        this.settings = RenderSettings.DEFAULT.withSampleCache(requireNonNull(cache))
+                .withTileCache(new TileCache(16L * 1024 * 1024))
+                .withoutFunctionTimeBudget();
+    }
+
+    public HeadlessRenderer(ExecutorService executor) {
+        this(executor, new SampleCache(8L * 1024 * 1024));
+    }
+
+    /**
+     * Creates a renderer whose bulk methods render on {@link ForkJoinPool#commonPool()}.
+     */
+    public HeadlessRenderer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public void setBackground(Color background) {
+        this.background = requireNonNull(background);
+    }
+
+    public void setForeground(Color foreground) {
+        this.foreground = requireNonNull(foreground);
+    }
+
+    /**
+     * Sets the number of plotted points above which points are aggregated into a density raster.
+     * @see AwtCartesianPlaneViewport#setDensityThreshold(int)
+     */
+    public synchronized void setDensityThreshold(int threshold) {
+        this.settings = settings.withDensityThreshold(threshold);
+    }
+
+    /**
+     * @see AwtCartesianPlaneViewport#setDensityCellSize(int)
+     */
+    public synchronized void setDensityCellSize(int size) {
+        this.settings = settings.withDensityCellSize(size);
+    }
+
+    /**
+     * Sets the cache in which rasterized tiles of points are kept between renders. By default each renderer has a
+     * cache of its own.
+     * @see AwtCartesianPlaneViewport#setTileCache(TileCache)
+     */
+    public synchronized void setTileCache(TileCache cache) {
+        this.settings = settings.withTileCache(requireNonNull(cache));
+    }
+
+    /**
+     * Bounds the time for which each function is sampled per image, as {@link AwtCartesianPlaneViewport} does.
+     * By default there is no bound. With a bound, a slow function may be cut off, and where it is cut off varies with
+     * the load of the machine, so images of the same plane may differ. {@code ChronoUnit.FOREVER.getDuration()}
+     * removes the bound again.
+     * @see AwtCartesianPlaneViewport#setFunctionTimeBudget(Duration)
+     */
+    public synchronized void setFunctionTimeBudget(Duration budget) {
+        this.settings = settings.withFunctionTimeBudget(requireNonNull(budget));
+    }
+
+    /**
+     * Renders the given viewport into the given image. The image must be at least as large as the viewport.
+     */
+    public void render(CartesianPlaneViewport viewport, BufferedImage target) {
+        requireNonNull(target);
+        final var frame = new HeadlessCartesianPlaneViewport(requireNonNull(viewport));
+        if (target.getWidth() < frame.getWidth() || target.getHeight() < frame.getHeight()) {
+            throw new IllegalArgumentException("The image is smaller than the viewport.");
+        }
+        final Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setColor(background);
+            graphics.fillRect(0, 0, frame.getWidth(), frame.getHeight());
+            graphics.setColor(foreground);
+            contexts.get().renderer.render(graphics, frame, settings);
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * Renders the given viewport into a new image, which is owned by the caller.
+     */
+    public BufferedImage render(CartesianPlaneViewport viewport) {
+        requireNonNull(viewport);
+        final var image = new BufferedImage(viewport.getWidth(), viewport.getHeight(), BufferedImage.TYPE_INT_RGB);
+        render(viewport, image);
+        return image;
+    }
+
+    /**
+     * Renders the given viewport and encodes the image as a PNG.
+     */
+    public void writePng(CartesianPlaneViewport viewport, OutputStream out) throws IOException {
+        requireNonNull(viewport);
+        requireNonNull(out);
+        final BufferedImage image = contexts.get().getImage(viewport.getWidth(), viewport.getHeight());
+        render(viewport, image);
+        ImageIO.write(image, "png", out);
+    }
+
+    /**
+     * Renders the given viewport and returns the image encoded as a PNG.
+     */
+    public byte[] renderPng(CartesianPlaneViewport viewport) {
+        final var out = new ByteArrayOutputStream();
+        try {
+            writePng(viewport, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Renders all the given viewports concurrently and returns the PNG encoded images in the same order.
+     */
+    public List<byte[]> renderPng(List<? extends CartesianPlaneViewport> viewports) {
+        requireNonNull(viewports);
+        final var tasks = new ArrayList<Callable<byte[]>>(viewports.size());
+        for (CartesianPlaneViewport viewport : viewports) {
+            requireNonNull(viewport);
+            tasks.add(() -> renderPng(viewport));
+        }
+        return invokeAll(tasks);
+    }
+
+    /**
+     * Renders all the given viewports concurrently, passing each image to the given consumer on the thread
+     * which rendered it. The image is reused by that thread once the consumer returns, so the consumer must copy or
+     * encode it before returning. This method returns once every viewport has been rendered and consumed.
+     */
+    public <V extends CartesianPlaneViewport> void renderAll(Collection<V> viewports,
+                                                             BiConsumer<? super V, ? super BufferedImage> consumer) {
+        requireNonNull(viewports);
+        requireNonNull(consumer);
+        final var tasks = new ArrayList<Callable<Void>>(viewports.size());
+        for (V viewport : viewports) {
+            requireNonNull(viewport);
+            tasks.add(() -> {
+                final BufferedImage image = contexts.get().getImage(viewport.getWidth(), viewport.getHeight());
+                render(viewport, image);
+                consumer.accept(viewport, image);
+                return null;
+            });
+        }
+        invokeAll(tasks);
+    }
+
+    private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        try {
+            final var results = new ArrayList<T>(tasks.size());
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.Axis;
+import com.duncpro.cartesianj.CartesianPlaneViewport;
+import com.duncpro.cartesianj.PointConsumer;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Draws plotted points as circular markers.
+ *
+ * The marker is rendered once into a sprite, which is then copied to the position of every point. Copying an image
+ * costs Java2D far less than filling an oval. If the graphics are scaled, for instance on a display with a high pixel
+ * density, the sprite would be blurred, so markers are filled individually instead.
+ *
+ * A point whose marker would be centered on the same pixel as that of a point drawn before it is skipped, because the
+ * marker would cover exactly the same pixels. Dense clusters of points therefore cost at most one marker per pixel.
+ * While previewing, only every so many points are drawn at all.
+ *
+ * The sprite and the record of which pixels have been covered are retained between frames.
+ * Instances are not thread-safe.
+ */
+final class MarkerPainter implements PointConsumer {
+    // The sprite, and the color, stroke and size it was rendered with. Java2D rasterizes small ovals slightly
+    // differently depending on the stroke, even though filling does not use it.
+    private BufferedImage sprite = null;
+    private Color spriteColor = null;
+    private Stroke spriteStroke = null;
+    private int spriteSize = 0;
+
+    // One bit per pixel of the viewport, set once a marker has been centered on that pixel
+    private long[] covered = new long[0];
+    private int width;
+    private int height;
+
+    // The state of the frame being drawn
+    private Graphics graphics;
+    private AwtPixelConverter converter;
+    private boolean stamp;
+    private int size;
+    private int stride;
+    private int visible;
+    private int drawn;
+    private int centered;
+    private int considered;
+
+    /**
+     * Draws a marker of the given diameter for every point within the visible part of the plane, in the current color
+     * of the given graphics. Points beyond the edges are culled by the plane's spatial index, except for those close
+     * enough that part of their marker is still visible.
+     * @param stride only every stride-th visible point is drawn, which is 1 unless previewing
+     * @return the number of markers drawn, which excludes the points skipped because of the stride and those whose
+     * marker would have covered exactly the pixels of another marker
+     */
+    int paint(Graphics2D graphics, CartesianPlaneViewport viewport, int size, int stride) {
+        if (stride <= 0) throw new IllegalArgumentException();
+        this.graphics = graphics;
+        this.converter = viewport.getConverter();
+        this.size = size;
+        this.stride = stride;
+        this.visible = 0;
+        this.drawn = 0;
+        this.centered = 0;
+        final int type = graphics.getTransform().getType();
+        this.stamp = (type & ~AffineTransform.TYPE_TRANSLATION) == AffineTransform.TYPE_IDENTITY;
+        if (stamp) prepareSprite(graphics.getColor(), graphics.getStroke(), size);
+        clearCoverage(viewport.getWidth(), viewport.getHeight());
+
+        final double xMargin = converter.toUnits(size, Axis.X);
+        final double yMargin = converter.toUnits(size, Axis.Y);
+        try {
+            considered = viewport.getPlane().forEachPointWithin(
+                    converter.getVisibleMin(Axis.X) - xMargin, converter.getVisibleMin(Axis.Y) - yMargin,
+                    converter.getVisibleMax(Axis.X) + xMargin, converter.getVisibleMax(Axis.Y) + yMargin,
+                    this);
+        } finally {
+            this.graphics = null;
+            this.converter = null;
+        }
+        return drawn;
+    }
+
+    /**
+     * The number of points within the visible part of the plane, or close enough to it that part of their marker is
+     * visible, which the most recent frame was passed. This includes the points which were skipped.
+     */
+    int getVisibleCount() {
+        return visible;
+    }
+
+    /**
+     * The number of points drawn by the most recent frame whose marker is centered within the viewport, as opposed to
+     * those beyond its edges whose marker is only partially visible.
+     */
+    int getCenteredCount() {
+        return centered;
+    }
+
+    /**
+     * The number of plotted points which the most recent frame considered, as returned by
+     * {@link com.duncpro.cartesianj.CartesianPlane#forEachPointWithin}. Points plotted after these were not drawn.
+     */
+    int getConsideredCount() {
+        return considered;
+    }
+
+    @Override
+    public void accept(double x, double y) {
+        if (visible++ % stride != 0) return;
+        final int xPx = converter.toScreenX(x);
+        final int yPx = converter.toScreenY(y);
+        if (xPx >= 0 && xPx < width && yPx >= 0 && yPx < height) {
+            centered++;
+            final int pixel = (yPx * width) + xPx;
+            final long bit = 1L << pixel;
+            if ((covered[pixel >>> 6] & bit) != 0) return;
+            covered[pixel >>> 6] |= bit;
+        }
+        drawn++;
+        if (stamp) {
+            graphics.drawImage(sprite, xPx - (size / 2), yPx - (size / 2), null);
+        } else {
+            graphics.fillOval(xPx - (size / 2), yPx - (size / 2), size, size);
+        }
+    }
+
+    private void prepareSprite(Color color, Stroke stroke, int size) {
+        if (sprite != null && color.equals(spriteColor) && stroke.equals(spriteStroke) && size == spriteSize) return;
+        final var sprite = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D spriteGraphics = sprite.createGraphics();
+        try {
+            spriteGraphics.setColor(color);
+            spriteGraphics.setStroke(stroke);
+            spriteGraphics.fillOval(0, 0, size, size);
+        } finally {
+            spriteGraphics.dispose();
+        }
+        this.sprite = sprite;
+        this.spriteColor = color;
+        this.spriteStroke = stroke;
+        this.spriteSize = size;
+    }
+
+    private void clearCoverage(int width, int height) {
+        this.width = Math.max(0, width);
+        this.height = Math.max(0, height);
+        final int words = (int) (((long) this.width * this.height + 63) / 64);
+        if (covered.length == words) {
+            Arrays.fill(covered, 0);
+        } else {
+            covered = new long[words];
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.Axis;
+import com.duncpro.cartesianj.CartesianPlane;
+import com.duncpro.cartesianj.CartesianPlaneViewport;
+import com.duncpro.cartesianj.PlaneSnapshot;
+import com.duncpro.cartesianj.PointSeries;
+
+import java.awt.*;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+import static com.duncpro.cartesianj.awt.AwtUtil.generalPurposeColorMap;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Draws the contents of a {@link CartesianPlane} as seen through a {@link CartesianPlaneViewport}.
+ * The drawing logic does not depend on any AWT component, so the same frame can be drawn directly onto a component,
+ * into an offscreen image on a background thread, or into an image on a machine without a display.
+ *
+ * Every function is sampled by a task of its own, either on the sampling pool of the settings or one at a time on a
+ * shared sampling thread, while the rendering thread waits for it. Sampling stops once a function has exceeded the
+ * time budget of the settings, and the part of its curve which has been sampled is drawn. A function which does not
+ * even return from a single evaluation in time is abandoned to its task, and is not sampled again until that task
+ * has finished. Either way its label is flagged in the corner of the frame, so that a slow or hanging function
+ * does not block the whole plot.
+ *
+ * Instances retain the sample buffers of each function between frames and are therefore not thread-safe.
+ * Each thread which renders frames should use its own instance.
+ */
+final class PlaneRenderer {
+    private static final Stroke AXIS_STROKE = new BasicStroke(1);
+    private static final Stroke CURVE_STROKE = new BasicStroke(3);
+    private static final Stroke SERIES_STROKE = new BasicStroke(2);
+
+    /**
+     * The diameter of the marker of a plotted point, in pixels.
+     */
+    private static final int MARKER_SIZE = 6;
+
+    /**
+     * A preview draws a marker for at most about this many points. The others are skipped evenly.
+     */
+    static final int PREVIEW_POINT_BUDGET = 10_000;
+
+    /**
+     * How long the rendering thread waits for a function beyond its time budget before abandoning it. Sampling
+     * stops soon after the budget unless a single evaluation takes longer than this.
+     */
+    static final long UNRESPONSIVE_GRACE_NANOS = 100_000_000;
+
+    // Samples functions one at a time when the settings have no sampling pool. The threads are replaced whenever one
+    // is stuck in a function which does not return.
+    private static final ExecutorService samplingExecutor = Executors.newCachedThreadPool(runnable -> {
+        final var thread = new Thread(runnable, "CartesianJ Sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Each function is sampled into its own buffers, so that functions can be sampled concurrently.
+    private final Map<String, CurveSampler> curveSamplers = new HashMap<>();
+
+    private final DensityLayer densityLayer = new DensityLayer();
+
+    private final SeriesPainter seriesPainter = new SeriesPainter();
+
+    private final MarkerPainter markerPainter = new MarkerPainter();
+
+    private final TileLayer tileLayer = new TileLayer();
+
+    // The tasks of functions which did not return in time, keyed by label. Their samplers have been removed from
+    // curveSamplers, since they are still in use by the task.
+    private final Map<String, SamplingTask> unresponsive = new HashMap<>();
+
+    /**
+     * Draws a single frame of the plane's current state. Drawing starts with the current color of the given graphics,
+     * which is used for the axes, points and labels.
+     */
+    FrameMetrics render(Graphics2D graphics, CartesianPlaneViewport viewport, RenderSettings settings) {
+        return render(graphics, viewport, viewport.getPlane().snapshot(), settings, () -> false);
+    }
+
+    /**
+     * Draws a single frame of the given snapshot of the viewport's plane.
+     * @param stale checked periodically while functions are sampled. Once it returns true, the frame is abandoned.
+     * @return how the frame was rendered, without the counters of any viewport
+     * @throws CancellationException if the frame was abandoned, in which case the graphics hold a partial frame
+     */
+    FrameMetrics render(Graphics2D graphics, CartesianPlaneViewport viewport, PlaneSnapshot snapshot,
+                        RenderSettings settings, BooleanSupplier stale) {
+        requireNonNull(graphics);
+        requireNonNull(viewport);
+        requireNonNull(snapshot);
+        requireNonNull(settings);
+        requireNonNull(stale);
+        final var jfrEvent = new FrameRenderedEvent();
+        jfrEvent.begin();
+        final long frameStart = System.nanoTime();
+        final SampleCache cache = settings.sampleCache;
+        final ForkJoinPool pool = settings.samplingPool;
+        final Color foreground = graphics.getColor();
+        graphics.setStroke(AXIS_STROKE);
+        paintXAxis(graphics, viewport);
+        paintYAxis(graphics, viewport);
+        final long axesEnd = System.nanoTime();
+
+        graphics.setStroke(CURVE_STROKE);
+        final SortedMap<String, DoubleUnaryOperator> functions = snapshot.getFunctions();
+        sampleFunctions(functions, viewport, cache, pool, settings.preview, settings.functionTimeBudgetNanos, stale);
+        final var functionNanos = new TreeMap<String, Long>();
+        final var functionEvaluations = new TreeMap<String, Integer>();
+        final var incompleteFunctions = new TreeSet<String>();
+        int i = 0;
+        for (String label : functions.keySet()) {
+            final long drawStart = System.nanoTime();
+            Color c = generalPurposeColorMap().apply(i++);
+            graphics.setColor(c);
+            final CurveSampler sampler = curveSamplers.get(label);
+            if (sampler == null) {
+                // Abandoned, because it did not return in time
+                incompleteFunctions.add(label);
+                continue;
+            }
+            if (!sampler.isComplete()) incompleteFunctions.add(label);
+            sampler.draw(graphics);
+            final long totalNanos = sampler.getSamplingNanos() + (System.nanoTime() - drawStart);
+            functionNanos.put(label, totalNanos);
+            functionEvaluations.put(label, sampler.getEvaluationCount());
+            commitFunctionEvent(label, sampler, totalNanos);
+        }
+        final long functionsEnd = System.nanoTime();
+
+        graphics.setStroke(SERIES_STROKE);
+        for (PointSeries series : snapshot.getSeries().values()) {
+            graphics.setColor(generalPurposeColorMap().apply(i++));
+            seriesPainter.paint(graphics, viewport, series);
+        }
+        final long seriesEnd = System.nanoTime();
+
+        graphics.setColor(foreground);
+        final boolean densityMode = snapshot.getPointCount() > settings.densityThreshold;
+        final int pointsVisible;
+        final int pointsDrawn;
+        if (densityMode) {
+            densityLayer.draw(graphics, viewport, snapshot, settings.densityCellSize, settings.preview);
+            pointsVisible = densityLayer.getVisiblePointCount();
+            pointsDrawn = pointsVisible;
+        } else if (snapshot.getPointCount() >= TileLayer.TILED_POINT_THRESHOLD
+                && tileLayer.draw(graphics, viewport, snapshot, settings.tileCache, MARKER_SIZE, settings.preview)) {
+            pointsVisible = tileLayer.getVisiblePointCount();
+            pointsDrawn = pointsVisible;
+        } else {
+            final int stride = settings.preview ? Math.max(1, snapshot.getPointCount() / PREVIEW_POINT_BUDGET) : 1;
+            pointsDrawn = markerPainter.paint(graphics, viewport, MARKER_SIZE, stride);
+            pointsVisible = markerPainter.getVisibleCount();
+        }
+        final long pointsEnd = System.nanoTime();
+
+        paintStepSize(graphics, viewport);
+        paintIncompleteFunctions(graphics, functions.keySet(), incompleteFunctions);
+        if (settings.debugOverlay) paintDebugOverlay(graphics, viewport, functionNanos);
+        final long frameEnd = System.nanoTime();
+        updateFrameRate(frameEnd);
+
+        final var metrics = new FrameMetrics(snapshot.getVersion(), frameEnd - frameStart, axesEnd - frameStart,
+                functionsEnd - axesEnd, seriesEnd - functionsEnd, pointsEnd - seriesEnd, frameEnd - pointsEnd,
+                Collections.unmodifiableSortedMap(functionNanos),
+                Collections.unmodifiableSortedMap(functionEvaluations),
+                Collections.unmodifiableSortedSet(incompleteFunctions), pointsDrawn, pointsVisible - pointsDrawn,
+                Math.max(0, snapshot.getPointCount() - pointsVisible), densityMode, 0, 0);
+        jfrEvent.end();
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.planeTitle = snapshot.getPlane().getTitle().orElse(null);
+            jfrEvent.planeVersion = metrics.getPlaneVersion();
+            jfrEvent.axesNanos = metrics.getAxesNanos();
+            jfrEvent.functionsNanos = metrics.getFunctionsNanos();
+            jfrEvent.seriesNanos = metrics.getSeriesNanos();
+            jfrEvent.pointsNanos = metrics.getPointsNanos();
+            jfrEvent.labelsNanos = metrics.getLabelsNanos();
+            jfrEvent.evaluations = metrics.getEvaluationCount();
+            jfrEvent.pointsDrawn = metrics.getPointsDrawn();
+            jfrEvent.pointsSkipped = metrics.getPointsSkipped();
+            jfrEvent.pointsCulled = metrics.getPointsCulled();
+            jfrEvent.densityMode = densityMode;
+            jfrEvent.commit();
+        }
+        return metrics;
+    }
+
+    /**
+     * Samples one function on another thread, so that the rendering thread can stop waiting for it.
+     */
+    private static final class SamplingTask implements Runnable {
+        private final DoubleUnaryOperator f;
+        private final CurveSampler sampler;
+        private final Runnable sample;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile Throwable failure = null;
+
+        // The thread which is running the task, guarded by this
+        private Thread runner = null;
+
+        SamplingTask(DoubleUnaryOperator f, CurveSampler sampler, Runnable sample) {
+            this.f = f;
+            this.sampler = sampler;
+            this.sample = sample;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                runner = Thread.currentThread();
+            }
+            try {
+                sample.run();
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // The thread is pooled, so an interrupt meant for this task must not reach the next one
+                    Thread.interrupted();
+                }
+                finished.countDown();
+            }
+        }
+
+        /**
+         * Interrupts the function, in case it is blocked in a method which responds to interruption.
+         */
+        synchronized void abandon() {
+            if (runner != null) runner.interrupt();
+        }
+
+        /**
+         * Waits for the task to finish, for at most the given time.
+         * @return whether the task has finished
+         * @throws CancellationException if the waiting thread is interrupted, which happens when the rendering
+         * thread is shut down
+         */
+        boolean await(long timeoutNanos) {
+            try {
+                return finished.await(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+        }
+
+        boolean isFinished() {
+            return finished.getCount() == 0;
+        }
+    }
+
+    private void sampleFunctions(SortedMap<String, DoubleUnaryOperator> functions, CartesianPlaneViewport viewport,
+                                 SampleCache cache, ForkJoinPool pool, boolean preview, long budgetNanos,
+                                 BooleanSupplier stale) {
+        curveSamplers.entrySet().removeIf(entry -> {
+            if (functions.containsKey(entry.getKey())) return false;
+            entry.getValue().invalidate(cache);
+            return true;
+        });
+        // A function which is replaced is sampled afresh, even if the function it replaced is still stuck
+        unresponsive.entrySet().removeIf(entry -> entry.getValue().isFinished()
+                || functions.get(entry.getKey()) != entry.getValue().f);
+        final long timeoutNanos = budgetNanos > Long.MAX_VALUE - UNRESPONSIVE_GRACE_NANOS ? Long.MAX_VALUE
+                : budgetNanos + UNRESPONSIVE_GRACE_NANOS;
+
+        // Functions are sampled one at a time without a pool, each once its predecessor has finished
+        final var tasks = new LinkedHashMap<String, SamplingTask>();
+        Throwable failure = null;
+        for (Map.Entry<String, DoubleUnaryOperator> entry : functions.entrySet()) {
+            final String label = entry.getKey();
+            final DoubleUnaryOperator f = entry.getValue();
+            if (unresponsive.containsKey(label)) continue;
+            final CurveSampler sampler = curveSamplers.computeIfAbsent(label, l -> new CurveSampler());
+            final var task = new SamplingTask(f, sampler,
+                    () -> sampler.sample(f, viewport, cache, pool, preview, budgetNanos, stale));
+            tasks.put(label, task);
+            if (pool == null) {
+                samplingExecutor.execute(task);
+                failure = awaitSampling(label, task, timeoutNanos);
+                if (failure != null) break;
+            } else if (ForkJoinTask.getPool() == pool) {
+                // Waiting on a worker of the pool could leave no worker to run the task
+                task.run();
+            } else {
+                pool.execute(task);
+            }
+        }
+        if (pool != null) {
+            for (Map.Entry<String, SamplingTask> entry : tasks.entrySet()) {
+                final Throwable taskFailure = awaitSampling(entry.getKey(), entry.getValue(), timeoutNanos);
+                if (failure == null) failure = taskFailure;
+            }
+        }
+
+        if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if (failure instanceof Error) throw (Error) failure;
+        if (failure != null) throw new AssertionError(failure);
+    }
+
+    /**
+     * Waits for the given task. If it does not finish in time, its function is abandoned.
+     * @return the exception thrown by the function, if any
+     */
+    private Throwable awaitSampling(String label, SamplingTask task, long timeoutNanos) {
+        if (task.await(timeoutNanos)) return task.failure;
+        task.abandon();
+        unresponsive.put(label, task);
+        curveSamplers.remove(label, task.sampler);
+        return null;
+    }
+
+    /**
+     * Lists the functions which could not be sampled in time in the top left corner, each in its own color.
+     */
+    private void paintIncompleteFunctions(Graphics graphics, Set<String> labels, Set<String> incomplete) {
+        if (incomplete.isEmpty()) return;
+        final Color foreground = graphics.getColor();
+        final int lineHeight = graphics.getFontMetrics().getHeight();
+        int y = lineHeight;
+        int i = 0;
+        for (String label : labels) {
+            final Color color = generalPurposeColorMap().apply(i++);
+            if (!incomplete.contains(label)) continue;
+            graphics.setColor(color);
+            final String state = unresponsive.containsKey(label) ? "not responding" : "incomplete, too slow";
+            graphics.drawString(label + ": " + state, 10 /* padding */, y);
+            y += lineHeight;
+        }
+        graphics.setColor(foreground);
+    }
+
+    private static void commitFunctionEvent(String label, CurveSampler sampler, long totalNanos) {
+        final var event = new FunctionRenderedEvent();
+        if (!event.shouldCommit()) return;
+        event.label = label;
+        event.complete = sampler.isComplete();
+        event.evaluations = sampler.getEvaluationCount();
+        event.samplingNanos = sampler.getSamplingNanos();
+        event.totalNanos = totalNanos;
+        event.commit();
+    }
+
+    // An exponential moving average of the time between frames, which smooths the frame rate shown by the overlay
+    private double averageFrameIntervalNanos = 0;
+    private long lastFrameEnd = 0;
+
+    private void updateFrameRate(long frameEnd) {
+        if (lastFrameEnd != 0) {
+            final long interval = frameEnd - lastFrameEnd;
+            averageFrameIntervalNanos = averageFrameIntervalNanos == 0 ? interval
+                    : (0.9 * averageFrameIntervalNanos) + (0.1 * interval);
+        }
+        lastFrameEnd = frameEnd;
+    }
+
+    /**
+     * Draws the frame rate and the slowest function above the step sizes.
+     */
+    private void paintDebugOverlay(Graphics graphics, CartesianPlaneViewport viewport,
+                                   SortedMap<String, Long> functionNanos) {
+        final var fps = averageFrameIntervalNanos == 0 ? "FPS: -"
+                : String.format("FPS: %.1f", 1e9 / averageFrameIntervalNanos);
+        final var slowest = functionNanos.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(entry -> String.format("Slowest: %s (%.2f ms)", entry.getKey(), entry.getValue() / 1e6))
+                .orElse("Slowest: -");
+        final var textWidth = max(
+                graphics.getFontMetrics().stringWidth(fps),
+                graphics.getFontMetrics().stringWidth(slowest)
+        );
+        final var x = viewport.getWidth() - (textWidth + 10 /* padding */);
+        final var y = viewport.getHeight() - (4 * graphics.getFontMetrics().getHeight());
+        graphics.drawString(fps, x, y);
+        graphics.drawString(slowest, x, y + graphics.getFontMetrics().getHeight());
+    }
+
+    private void paintStepSize(Graphics graphics, CartesianPlaneViewport viewport) {
+        final var stepSizeX = "Step Size (X): " + viewport.getQuantitativeStepSize(Axis.X);
+        final var stepSizeY = "Step Size (Y): " + viewport.getQuantitativeStepSize(Axis.Y);
+        final var textWidth = max(
+                graphics.getFontMetrics().stringWidth(stepSizeX),
+                graphics.getFontMetrics().stringWidth(stepSizeY)
+        );
+        final var x = viewport.getWidth() - (textWidth + 10 /* padding */);
+        final var y = viewport.getHeight() - (2 * graphics.getFontMetrics().getHeight());
+        graphics.drawString(stepSizeX, x, y);
+        graphics.drawString(stepSizeY, x, y + graphics.getFontMetrics().getHeight());
+    }
+
+    private void paintXAxis(Graphics graphics, CartesianPlaneViewport viewport) {
+        final AwtPixelConverter converter = viewport.getConverter();
+        graphics.drawLine(0, viewport.getXAxisPosition(), viewport.getWidth(), viewport.getXAxisPosition());
+        int visibleLeftEdgeX = 0;
+        int visibleRightEdgeX = visibleLeftEdgeX + viewport.getWidth();
+        int yAxisX = viewport.getYAxisPosition();
+
+        // Quadrants I & IV
+        int distanceFromYAxisToRightEdgePx = visibleRightEdgeX - yAxisX;
+
+        int distanceFromYAxisToRightEdgeTicks = distanceFromYAxisToRightEdgePx / viewport.getVisualStepSize(Axis.X);
+        for (int tick = 0; tick <= distanceFromYAxisToRightEdgeTicks; tick++) {
+            int xPx = viewport.getYAxisPosition() + (tick * viewport.getVisualStepSize(Axis.X));
+            graphics.drawLine(xPx, viewport.getXAxisPosition() - 5, xPx, viewport.getXAxisPosition() + 5);
+        }
+
+        // Quadrants II & III
+        int distanceFromYAxisToLeftEdgePx = yAxisX - visibleLeftEdgeX;
+        int distanceFromYAxisToLeftEdgeTicks = distanceFromYAxisToLeftEdgePx / viewport.getVisualStepSize(Axis.X);
+        for (int tick = 0; tick <= distanceFromYAxisToLeftEdgeTicks; tick++) {
+            int xPx = viewport.getYAxisPosition()
+                    - (tick * converter.toPx(viewport.getQuantitativeStepSize(Axis.X), Axis.X));
+            graphics.drawLine(xPx, viewport.getXAxisPosition() - 5, xPx, viewport.getXAxisPosition() + 5);
+        }
+    }
+
+    private void paintYAxis(Graphics graphics, CartesianPlaneViewport viewport) {
+        final AwtPixelConverter converter = viewport.getConverter();
+        graphics.drawLine(viewport.getYAxisPosition(), 0, viewport.getYAxisPosition(), viewport.getHeight());
+
+        int topEdgeY = 0;
+        int bottomEdgeY = topEdgeY + viewport.getHeight();
+        int xAxisY = viewport.getXAxisPosition();
+
+        int distanceFromXAxisToTopEdgePx = xAxisY - topEdgeY;
+        int distanceFromXAxisToTopEdgeTicks = distanceFromXAxisToTopEdgePx / viewport.getVisualStepSize(Axis.Y);
+        for (int tick = 0; tick <= distanceFromXAxisToTopEdgeTicks; tick++) {
+            int yPx = viewport.getXAxisPosition()
+                    - tick * converter.toPx(viewport.getQuantitativeStepSize(Axis.Y), Axis.Y);
+            graphics.drawLine(viewport.getYAxisPosition() - 5, yPx, viewport.getYAxisPosition() + 5, yPx);
+        }
+
+        int distanceFromXAxisToBottomEdgePx = bottomEdgeY - xAxisY;
+        int distanceFromXAxisToBottomEdgeTicks = distanceFromXAxisToBottomEdgePx / viewport.getVisualStepSize(Axis.Y);
+        for (int tick = 0; tick <= distanceFromXAxisToBottomEdgeTicks; tick++) {
+            int yPx = viewport.getXAxisPosition()
+                    + (tick * converter.toPx(viewport.getQuantitativeStepSize(Axis.Y), Axis.Y));
+            graphics.drawLine(viewport.getYAxisPosition() - 5, yPx, viewport.getYAxisPosition() + 5, yPx);
+        }
+    }
+}
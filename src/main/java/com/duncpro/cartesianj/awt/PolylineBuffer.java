@@ -0,0 +1,146 @@
+package com.duncpro.cartesianj.awt;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Collects a line through many pixel positions, which may be broken into several runs, and draws each run with as
+ * few Java2D calls as possible. Consecutive positions within a run which fall onto the same pixel are stored once.
+ *
+ * Java2D validates its pipeline on every call, so a curve drawn one {@link Graphics#drawLine(int, int, int, int)} per
+ * segment spends most of its time outside of rasterization. Thin lines are therefore drawn as one
+ * {@link Graphics#drawPolyline(int[], int[], int)} per run. Java2D strokes a wide polyline as a single outline with
+ * joins at every vertex, which for a curve with a vertex per pixel is slower than drawing its segments individually.
+ * Wide aliased lines are instead swept with a brush, by drawing the thin polyline once for every pixel of a brush as
+ * wide as the stroke. Lines which are antialiased, dashed, or drawn with a stroke other than {@link BasicStroke},
+ * are still drawn one segment at a time, so that they look exactly as the stroke specifies.
+ *
+ * The buffers are retained between frames and only grow. Instances are not thread-safe.
+ */
+final class PolylineBuffer {
+    private static final Stroke THIN_STROKE = new BasicStroke(1);
+
+    private int[] xs = new int[16];
+    private int[] ys = new int[16];
+    private int size = 0;
+
+    // runEnds[i] is the exclusive end of run i. Runs are contiguous, so run i begins where run i - 1 ends.
+    private int[] runEnds = new int[4];
+    private int runCount = 0;
+
+    // Scratch buffers into which a run is copied, translated by the offset of a brush pixel
+    private int[] runXs = new int[16];
+    private int[] runYs = new int[16];
+
+    void clear() {
+        size = 0;
+        runCount = 0;
+    }
+
+    /**
+     * Begins a new run at the given position.
+     */
+    void moveTo(int x, int y) {
+        if (runCount == runEnds.length) runEnds = Arrays.copyOf(runEnds, runCount * 2);
+        runCount++;
+        append(x, y);
+    }
+
+    /**
+     * Extends the current run to the given position, or begins the first run.
+     */
+    void lineTo(int x, int y) {
+        if (runCount == 0) {
+            moveTo(x, y);
+            return;
+        }
+        if (x == xs[size - 1] && y == ys[size - 1]) return;
+        append(x, y);
+    }
+
+    private void append(int x, int y) {
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        size++;
+        runEnds[runCount - 1] = size;
+    }
+
+    /**
+     * The number of positions within all runs.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Draws every run using the color and stroke of the given graphics. A run of a single position is drawn as a dot.
+     */
+    void draw(Graphics2D graphics) {
+        if (size == 0) return;
+        final Stroke stroke = graphics.getStroke();
+        if (!(stroke instanceof BasicStroke) || ((BasicStroke) stroke).getDashArray() != null
+                || graphics.getRenderingHint(RenderingHints.KEY_ANTIALIASING) == RenderingHints.VALUE_ANTIALIAS_ON) {
+            drawSegments(graphics);
+            return;
+        }
+        final float width = ((BasicStroke) stroke).getLineWidth();
+        if (width <= 1) {
+            drawPolylines(graphics, 0, 0);
+            return;
+        }
+        // The brush is a square as wide as the stroke with its corners removed, so that diagonal lines are not
+        // noticeably thicker than horizontal ones.
+        final int brushSize = (int) Math.ceil(width);
+        final int from = -((brushSize - 1) / 2);
+        final int to = from + brushSize - 1;
+        graphics.setStroke(THIN_STROKE);
+        try {
+            for (int dy = from; dy <= to; dy++) {
+                for (int dx = from; dx <= to; dx++) {
+                    final boolean corner = brushSize > 2 && (dx == from || dx == to) && (dy == from || dy == to);
+                    if (!corner) drawPolylines(graphics, dx, dy);
+                }
+            }
+        } finally {
+            graphics.setStroke(stroke);
+        }
+    }
+
+    private void drawPolylines(Graphics graphics, int dx, int dy) {
+        int start = 0;
+        for (int run = 0; run < runCount; run++) {
+            final int end = runEnds[run];
+            final int length = end - start;
+            if (length == 1) {
+                graphics.drawLine(xs[start] + dx, ys[start] + dy, xs[start] + dx, ys[start] + dy);
+            } else {
+                if (runXs.length < length) {
+                    runXs = new int[xs.length];
+                    runYs = new int[xs.length];
+                }
+                for (int i = 0; i < length; i++) {
+                    runXs[i] = xs[start + i] + dx;
+                    runYs[i] = ys[start + i] + dy;
+                }
+                graphics.drawPolyline(runXs, runYs, length);
+            }
+            start = end;
+        }
+    }
+
+    private void drawSegments(Graphics graphics) {
+        int start = 0;
+        for (int run = 0; run < runCount; run++) {
+            final int end = runEnds[run];
+            if (end - start == 1) graphics.drawLine(xs[start], ys[start], xs[start], ys[start]);
+            for (int i = start + 1; i < end; i++) {
+                graphics.drawLine(xs[i - 1], ys[i - 1], xs[i], ys[i]);
+            }
+            start = end;
+        }
+    }
+}
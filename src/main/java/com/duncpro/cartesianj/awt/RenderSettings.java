@@ -0,0 +1,103 @@
+package com.duncpro.cartesianj.awt;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The options which determine how {@link PlaneRenderer} draws a frame, as opposed to what is visible within it,
+ * which is determined by the viewport. Instances are immutable, so that a frame rendered on a background thread
+ * sees a consistent set of options.
+ */
+final class RenderSettings {
+    static final int DEFAULT_DENSITY_THRESHOLD = 100_000;
+    static final int DEFAULT_DENSITY_CELL_SIZE = 2;
+    static final long DEFAULT_FUNCTION_TIME_BUDGET_NANOS = 500_000_000;
+
+    static final RenderSettings DEFAULT = new RenderSettings(SampleCache.getShared(), TileCache.getShared(), null,
+            DEFAULT_DENSITY_THRESHOLD, DEFAULT_DENSITY_CELL_SIZE, false, false, DEFAULT_FUNCTION_TIME_BUDGET_NANOS);
+
+    final SampleCache sampleCache;
+    final TileCache tileCache;
+    // Null if functions are sampled on the rendering thread
+    final ForkJoinPool samplingPool;
+    final int densityThreshold;
+    final int densityCellSize;
+    final boolean debugOverlay;
+    // Whether the frame is drawn while the user is navigating, in which case speed matters more than fidelity
+    final boolean preview;
+    // The time each function may be sampled for within a frame, or Long.MAX_VALUE if sampling is never cut short
+    final long functionTimeBudgetNanos;
+
+    private RenderSettings(SampleCache sampleCache, TileCache tileCache, ForkJoinPool samplingPool,
+                           int densityThreshold, int densityCellSize, boolean debugOverlay, boolean preview,
+                           long functionTimeBudgetNanos) {
+        this.sampleCache = requireNonNull(sampleCache);
+        this.tileCache = requireNonNull(tileCache);
+        this.samplingPool = samplingPool;
+        if (densityThreshold < 0) throw new IllegalArgumentException();
+        this.densityThreshold = densityThreshold;
+        if (densityCellSize <= 0) throw new IllegalArgumentException();
+        this.densityCellSize = densityCellSize;
+        this.debugOverlay = debugOverlay;
+        this.preview = preview;
+        if (functionTimeBudgetNanos <= 0) throw new IllegalArgumentException();
+        this.functionTimeBudgetNanos = functionTimeBudgetNanos;
+    }
+
+    RenderSettings withSampleCache(SampleCache sampleCache) {
+        return new RenderSettings(sampleCache, tileCache, samplingPool, densityThreshold, densityCellSize,
+                debugOverlay, preview, functionTimeBudgetNanos);
+    }
+
+    RenderSettings withTileCache(TileCache tileCache) {
+        return new RenderSettings(sampleCache, tileCache, samplingPool, densityThreshold, densityCellSize,
+                debugOverlay, preview, functionTimeBudgetNanos);
+    }
+
+    RenderSettings withSamplingPool(ForkJoinPool samplingPool) {
+        return new RenderSettings(sampleCache, tileCache, samplingPool, densityThreshold, densityCellSize,
+                debugOverlay, preview, functionTimeBudgetNanos);
+    }
+
+    RenderSettings withDensityThreshold(int densityThreshold) {
+        return new RenderSettings(sampleCache, tileCache, samplingPool, densityThreshold, densityCellSize,
+                debugOverlay, preview, functionTimeBudgetNanos);
+    }
+
+    RenderSettings withDensityCellSize(int densityCellSize) {
+        return new RenderSettings(sampleCache, tileCache, samplingPool, densityThreshold, densityCellSize,
+                debugOverlay, preview, functionTimeBudgetNanos);
+    }
+
+    RenderSettings withDebugOverlay(boolean debugOverlay) {
+        return new RenderSettings(sampleCache, tileCache, samplingPool, densityThreshold, densityCellSize,
+                debugOverlay, preview, functionTimeBudgetNanos);
+    }
+
+    RenderSettings withPreview(boolean preview) {
+        return new RenderSettings(sampleCache, tileCache, samplingPool, densityThreshold, densityCellSize,
+                debugOverlay, preview, functionTimeBudgetNanos);
+    }
+
+    /**
+     * Returns settings under which functions are sampled for as long as they take.
+     */
+    RenderSettings withoutFunctionTimeBudget() {
+        return new RenderSettings(sampleCache, tileCache, samplingPool, densityThreshold, densityCellSize,
+                debugOverlay, preview, Long.MAX_VALUE);
+    }
+
+    RenderSettings withFunctionTimeBudget(Duration budget) {
+        if (budget.isNegative() || budget.isZero()) throw new IllegalArgumentException();
+        long nanos;
+        try {
+            nanos = budget.toNanos();
+        } catch (ArithmeticException e) {
+            nanos = Long.MAX_VALUE;
+        }
+        return new RenderSettings(sampleCache, tileCache, samplingPool, densityThreshold, densityCellSize,
+                debugOverlay, preview, nanos);
+    }
+}
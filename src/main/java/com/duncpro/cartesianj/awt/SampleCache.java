@@ -0,0 +1,107 @@
+package com.duncpro.cartesianj.awt;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Retains the samples of plotted functions between frames, so that a viewport which is repainted without its
+ * functions or zoom level changing does not evaluate its functions again. When the viewport is panned horizontally,
+ * only the newly exposed range is sampled.
+ *
+ * The cache is bounded by an approximate number of bytes. When the bound is exceeded, the least recently used
+ * samples are evicted, regardless of which function or viewport they belong to. A single cache may be shared by any
+ * number of viewports. By default all viewports share {@link #getShared()}.
+ *
+ * Entries are grouped by function, so that once a function has been replaced, the samples of every zoom level it was
+ * sampled at are discarded at once, rather than retaining the function until they are evicted.
+ */
+public final class SampleCache {
+    private static final SampleCache shared = new SampleCache(32L * 1024 * 1024);
+
+    public static SampleCache getShared() {
+        return shared;
+    }
+
+    private final long maxBytes;
+    private long usedBytes = 0;
+    private final LinkedHashMap<SampleKey, CurveSamples> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // The keys of every cached function. Functions are compared by identity, like the keys themselves.
+    private final Map<DoubleUnaryOperator, Set<SampleKey>> keysByFunction = new IdentityHashMap<>();
+
+    public SampleCache(long maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException();
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Removes and returns the samples for the given key, or returns null if there are none.
+     * The caller has exclusive access to the returned samples until it puts them back.
+     */
+    synchronized CurveSamples take(SampleKey key) {
+        requireNonNull(key);
+        final CurveSamples samples = entries.remove(key);
+        if (samples != null) forget(key, samples);
+        return samples;
+    }
+
+    synchronized void put(SampleKey key, CurveSamples samples) {
+        requireNonNull(key);
+        requireNonNull(samples);
+        final long bytes = samples.getRetainedBytes();
+        if (bytes > maxBytes) return;
+        final CurveSamples previous = entries.put(key, samples);
+        if (previous != null) {
+            usedBytes -= previous.getRetainedBytes();
+        } else {
+            keysByFunction.computeIfAbsent(key.getFunction(), f -> new HashSet<>()).add(key);
+        }
+        usedBytes += bytes;
+
+        final Iterator<Map.Entry<SampleKey, CurveSamples>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            final Map.Entry<SampleKey, CurveSamples> entry = eldest.next();
+            eldest.remove();
+            forget(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Discards the samples of the given function at every zoom level.
+     */
+    synchronized void invalidate(DoubleUnaryOperator f) {
+        requireNonNull(f);
+        final Set<SampleKey> keys = keysByFunction.remove(f);
+        if (keys == null) return;
+        for (SampleKey key : keys) {
+            usedBytes -= entries.remove(key).getRetainedBytes();
+        }
+    }
+
+    private void forget(SampleKey key, CurveSamples samples) {
+        usedBytes -= samples.getRetainedBytes();
+        final Set<SampleKey> keys = keysByFunction.get(key.getFunction());
+        keys.remove(key);
+        if (keys.isEmpty()) keysByFunction.remove(key.getFunction());
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        keysByFunction.clear();
+        usedBytes = 0;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+}
@@ -0,0 +1,62 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.Axis;
+import com.duncpro.cartesianj.CartesianPlaneViewport;
+
+import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Identifies the samples of a function at a particular zoom level. Functions are compared by identity, so plotting a
+ * new function under an existing label never hits the entry of the function it replaced.
+ * The offsets and the width of the viewport are deliberately not part of the key, see {@link CurveSamples}.
+ * The height is, because it determines which jumps are considered discontinuities.
+ */
+final class SampleKey {
+    private final DoubleUnaryOperator f;
+    private final double xQuantitativeStepSize;
+    private final double yQuantitativeStepSize;
+    private final int xVisualStepSize;
+    private final int yVisualStepSize;
+    private final int height;
+
+    private SampleKey(DoubleUnaryOperator f, double xQuantitativeStepSize, double yQuantitativeStepSize,
+                      int xVisualStepSize, int yVisualStepSize, int height) {
+        this.f = requireNonNull(f);
+        this.xQuantitativeStepSize = xQuantitativeStepSize;
+        this.yQuantitativeStepSize = yQuantitativeStepSize;
+        this.xVisualStepSize = xVisualStepSize;
+        this.yVisualStepSize = yVisualStepSize;
+        this.height = height;
+    }
+
+    static SampleKey of(DoubleUnaryOperator f, CartesianPlaneViewport viewport) {
+        return new SampleKey(f, viewport.getQuantitativeStepSize(Axis.X), viewport.getQuantitativeStepSize(Axis.Y),
+                viewport.getVisualStepSize(Axis.X), viewport.getVisualStepSize(Axis.Y), viewport.getHeight());
+    }
+
+    DoubleUnaryOperator getFunction() {
+        return f;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SampleKey)) return false;
+        final SampleKey other = (SampleKey) o;
+        return f == other.f
+                && Double.compare(xQuantitativeStepSize, other.xQuantitativeStepSize) == 0
+                && Double.compare(yQuantitativeStepSize, other.yQuantitativeStepSize) == 0
+                && xVisualStepSize == other.xVisualStepSize
+                && yVisualStepSize == other.yVisualStepSize
+                && height == other.height;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(f), xQuantitativeStepSize, yQuantitativeStepSize,
+                xVisualStepSize, yVisualStepSize, height);
+    }
+}
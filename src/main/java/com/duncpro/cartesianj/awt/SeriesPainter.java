@@ -0,0 +1,51 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.CartesianPlaneViewport;
+import com.duncpro.cartesianj.PointConsumer;
+import com.duncpro.cartesianj.PointSeries;
+
+import java.awt.*;
+
+/**
+ * Draws a {@link PointSeries} as a line through its points, straight from the series' ring buffer.
+ * Consecutive points which fall onto the same pixel are drawn once, and the line is broken at points whose
+ * coordinates are NaN or infinite. The points are collected into a {@link PolylineBuffer} while the series is locked,
+ * and drawn after the lock has been released. Instances are reused for every series of a frame, so drawing a series
+ * does not allocate once the buffer has grown, and are not thread-safe.
+ */
+final class SeriesPainter implements PointConsumer {
+    private final PolylineBuffer polyline = new PolylineBuffer();
+    private AwtPixelConverter converter;
+
+    // Whether the previous point was finite, in which case it is connected to the next one
+    private boolean hasPrevious;
+
+    void paint(Graphics2D graphics, CartesianPlaneViewport viewport, PointSeries series) {
+        this.converter = viewport.getConverter();
+        this.hasPrevious = false;
+        polyline.clear();
+        try {
+            series.forEach(this);
+        } finally {
+            this.converter = null;
+        }
+        polyline.draw(graphics);
+    }
+
+    @Override
+    public void accept(double x, double y) {
+        if (!Double.isFinite(x) || !Double.isFinite(y)) {
+            hasPrevious = false;
+            return;
+        }
+        // Distant points are saturated by the converter rather than overflowing.
+        final int xPx = converter.toScreenX(x);
+        final int yPx = converter.toScreenY(y);
+        if (hasPrevious) {
+            polyline.lineTo(xPx, yPx);
+        } else {
+            polyline.moveTo(xPx, yPx);
+        }
+        hasPrevious = true;
+    }
+}
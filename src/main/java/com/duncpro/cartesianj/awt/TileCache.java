@@ -0,0 +1,215 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.CartesianPlane;
+import com.duncpro.cartesianj.PlaneSnapshot;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Retains the points layer of plotted planes as rasterized tiles, so that a viewport which is panned over a plane
+ * whose points have not changed only copies the tiles it has drawn before, and rasterizes the tiles which have just
+ * become visible.
+ *
+ * Points are never removed from a plane, so tiles only become outdated when points are plotted. The tiles which
+ * newly plotted points fall into are then discarded, and every other tile is kept.
+ *
+ * The cache is bounded by an approximate number of bytes. When the bound is exceeded, the least recently used tiles
+ * are evicted, regardless of which plane or viewport they belong to. A single cache may be shared by any number of
+ * viewports. By default all viewports share {@link #getShared()}.
+ */
+public final class TileCache {
+    private static final TileCache shared = new TileCache(64L * 1024 * 1024);
+
+    public static TileCache getShared() {
+        return shared;
+    }
+
+    /**
+     * The number of newly plotted points above which all tiles of the plane are discarded, instead of only those the
+     * points fall into. Finding the tiles of so many points would take longer than rasterizing the visible tiles again.
+     */
+    static final int INVALIDATE_ALL_THRESHOLD = 100_000;
+
+    /**
+     * A rasterized tile of the points layer.
+     */
+    static final class Tile {
+        final BufferedImage image;
+        // The number of plotted points which were considered when the tile was rasterized
+        final int consideredCount;
+        // The number of points whose marker is centered within the tile
+        final int pointCount;
+
+        Tile(BufferedImage image, int consideredCount, int pointCount) {
+            this.image = requireNonNull(image);
+            this.consideredCount = consideredCount;
+            this.pointCount = pointCount;
+        }
+
+        long getRetainedBytes() {
+            return (long) image.getWidth() * image.getHeight() * Integer.BYTES;
+        }
+    }
+
+    private static final class Key {
+        final TileGrid grid;
+        final long column;
+        final long row;
+
+        Key(TileGrid grid, long column, long row) {
+            this.grid = requireNonNull(grid);
+            this.column = column;
+            this.row = row;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key other = (Key) o;
+            return column == other.column && row == other.row && grid.equals(other.grid);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(grid, column, row);
+        }
+    }
+
+    private final long maxBytes;
+    private long usedBytes = 0;
+    private final LinkedHashMap<Key, Tile> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // The number of tiles of each grid, so that the grids of a plane can be found without visiting every tile
+    private final Map<TileGrid, Integer> tileCounts = new HashMap<>();
+    // The number of points of each plane which the tiles reflect. A plane is only ever present once it has been
+    // synchronized. Weakly referenced, since a plane whose tiles have all been evicted is no longer referenced by
+    // the cache otherwise.
+    private final Map<CartesianPlane, Integer> syncedCounts = new WeakHashMap<>();
+
+    public TileCache(long maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException();
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Discards the tiles which the points plotted since the last synchronization fall into. This must be invoked
+     * before the tiles of the given snapshot's plane are looked up.
+     */
+    synchronized void sync(PlaneSnapshot snapshot) {
+        final CartesianPlane plane = snapshot.getPlane();
+        final int count = snapshot.getPointCount();
+        final Integer synced = syncedCounts.get(plane);
+        if (synced != null && synced >= count) return;
+        syncedCounts.put(plane, count);
+        // Tiles are only cached once their plane has been synchronized
+        if (synced == null) return;
+
+        final List<TileGrid> grids = new ArrayList<>();
+        for (TileGrid grid : tileCounts.keySet()) {
+            if (grid.plane == plane) grids.add(grid);
+        }
+        if (grids.isEmpty()) return;
+        if (count - synced > INVALIDATE_ALL_THRESHOLD) {
+            final Iterator<Map.Entry<Key, Tile>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<Key, Tile> entry = iterator.next();
+                if (entry.getKey().grid.plane == plane) remove(iterator, entry);
+            }
+            return;
+        }
+        for (TileGrid grid : grids) {
+            snapshot.forEachPoint(synced, count, (x, y) -> {
+                final double xPx = x * grid.xScale;
+                final double yPx = -y * grid.yScale;
+                if (!Double.isFinite(xPx) || !Double.isFinite(yPx)) return;
+                // The marker of a point may extend into the neighboring tiles. The margin also covers the fraction
+                // of a pixel by which the grid is offset.
+                final int margin = grid.markerSize + 1;
+                for (long column = TileGrid.tileOf(xPx - margin); column <= TileGrid.tileOf(xPx + margin); column++) {
+                    for (long row = TileGrid.tileOf(yPx - margin); row <= TileGrid.tileOf(yPx + margin); row++) {
+                        invalidate(new Key(grid, column, row));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the given tile, or null if it is not cached.
+     */
+    synchronized Tile get(TileGrid grid, long column, long row) {
+        return entries.get(new Key(grid, column, row));
+    }
+
+    /**
+     * Whether the given tile is cached. Unlike {@link #get(TileGrid, long, long)} this does not count as a use of
+     * the tile.
+     */
+    synchronized boolean contains(TileGrid grid, long column, long row) {
+        return entries.containsKey(new Key(grid, column, row));
+    }
+
+    /**
+     * Caches the given tile, unless it was rasterized before the plane was last synchronized, in which case it may
+     * lack points which have been plotted into it since.
+     */
+    synchronized void put(TileGrid grid, long column, long row, Tile tile) {
+        requireNonNull(tile);
+        final Integer synced = syncedCounts.get(grid.plane);
+        if (synced == null || tile.consideredCount < synced) return;
+        final long bytes = tile.getRetainedBytes();
+        if (bytes > maxBytes) return;
+        final Key key = new Key(grid, column, row);
+        final Tile previous = entries.put(key, tile);
+        if (previous != null) {
+            usedBytes -= previous.getRetainedBytes();
+        } else {
+            tileCounts.merge(grid, 1, Integer::sum);
+        }
+        usedBytes += bytes;
+
+        final Iterator<Map.Entry<Key, Tile>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            remove(eldest, eldest.next());
+        }
+    }
+
+    private void invalidate(Key key) {
+        final Tile tile = entries.remove(key);
+        if (tile != null) forget(key, tile);
+    }
+
+    private void remove(Iterator<Map.Entry<Key, Tile>> iterator, Map.Entry<Key, Tile> entry) {
+        iterator.remove();
+        forget(entry.getKey(), entry.getValue());
+    }
+
+    private void forget(Key key, Tile tile) {
+        usedBytes -= tile.getRetainedBytes();
+        tileCounts.computeIfPresent(key.grid, (grid, count) -> count == 1 ? null : count - 1);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        tileCounts.clear();
+        usedBytes = 0;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+}
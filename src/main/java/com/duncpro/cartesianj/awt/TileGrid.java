@@ -0,0 +1,118 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.Axis;
+import com.duncpro.cartesianj.CartesianPlane;
+import com.duncpro.cartesianj.CartesianPlaneViewport;
+import com.duncpro.cartesianj.Direction;
+
+import java.awt.*;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Divides the points layer of a plane at one zoom level into square tiles. Tiles are fixed in data space rather than
+ * on screen: tile (0, 0) begins at the origin, and columns grow rightwards and rows downwards, so the same tiles are
+ * visible wherever the viewport is panned to. The zoom level is the pair of quantitative and visual step sizes of
+ * either axis, and the marker style is part of the grid as well, since it determines the pixels of every tile.
+ *
+ * So is the fraction of a pixel by which the origin is offset. Markers are drawn at whole pixels, so a point lands
+ * on a different pixel depending on that fraction. Tiles drawn at the same fraction as the viewport are therefore
+ * identical to the markers drawn directly. Panning by whole pixels keeps the fraction, and so does not miss the cache.
+ * Instances are immutable.
+ */
+final class TileGrid {
+    /**
+     * The width and height of a tile, in pixels.
+     */
+    static final int TILE_SIZE = 256;
+
+    final CartesianPlane plane;
+    private final double xQuantitativeStepSize;
+    private final double yQuantitativeStepSize;
+    private final int xVisualStepSize;
+    private final int yVisualStepSize;
+    final int markerSize;
+    final Color color;
+    final Stroke stroke;
+    // The fraction of a pixel by which the origin lies beyond a whole pixel, between 0 and 1
+    private final double xPhase;
+    private final double yPhase;
+
+    // Pixels per unit, computed exactly as the pixel converter does
+    final double xScale;
+    final double yScale;
+
+    private TileGrid(CartesianPlane plane, double xQuantitativeStepSize, double yQuantitativeStepSize,
+                     int xVisualStepSize, int yVisualStepSize, int markerSize, Color color, Stroke stroke,
+                     double xPhase, double yPhase) {
+        this.plane = requireNonNull(plane);
+        this.xQuantitativeStepSize = xQuantitativeStepSize;
+        this.yQuantitativeStepSize = yQuantitativeStepSize;
+        this.xVisualStepSize = xVisualStepSize;
+        this.yVisualStepSize = yVisualStepSize;
+        this.markerSize = markerSize;
+        this.color = requireNonNull(color);
+        this.stroke = requireNonNull(stroke);
+        this.xPhase = xPhase;
+        this.yPhase = yPhase;
+        this.xScale = xVisualStepSize / xQuantitativeStepSize;
+        this.yScale = yVisualStepSize / yQuantitativeStepSize;
+    }
+
+    static TileGrid of(CartesianPlaneViewport viewport, int markerSize, Color color, Stroke stroke) {
+        final double originX = viewport.getConverter().getOriginPosition(Axis.X);
+        final double originY = viewport.getConverter().getOriginPosition(Axis.Y);
+        return new TileGrid(viewport.getPlane(), viewport.getQuantitativeStepSize(Axis.X),
+                viewport.getQuantitativeStepSize(Axis.Y), viewport.getVisualStepSize(Axis.X),
+                viewport.getVisualStepSize(Axis.Y), markerSize, color, stroke,
+                originX - Math.floor(originX), originY - Math.floor(originY));
+    }
+
+    /**
+     * The column or row of the tile containing the given pixel position, measured from the origin.
+     * Positions grow rightwards and downwards.
+     */
+    static long tileOf(double px) {
+        return (long) Math.floor(px / TILE_SIZE);
+    }
+
+    /**
+     * A viewport of the size of one tile, which shows exactly the given tile. Its origin lies the same fraction of a
+     * pixel beyond a whole pixel as that of the viewport the grid was created for.
+     */
+    HeadlessCartesianPlaneViewport viewportOf(long column, long row) {
+        final var viewport = new HeadlessCartesianPlaneViewport(plane, TILE_SIZE, TILE_SIZE);
+        viewport.setQuantitativeStepSize(Axis.X, xQuantitativeStepSize);
+        viewport.setQuantitativeStepSize(Axis.Y, yQuantitativeStepSize);
+        viewport.setVisualStepSize(Axis.X, xVisualStepSize);
+        viewport.setVisualStepSize(Axis.Y, yVisualStepSize);
+        // The origin lies half a tile from the edge of a viewport which is not offset
+        viewport.setOffset(Direction.HORIZONTAL, -((double) column * TILE_SIZE) - (TILE_SIZE / 2) + xPhase);
+        viewport.setOffset(Direction.VERTICAL, -((double) row * TILE_SIZE) - (TILE_SIZE / 2) + yPhase);
+        return viewport;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TileGrid)) return false;
+        final TileGrid other = (TileGrid) o;
+        return plane == other.plane
+                && Double.compare(xQuantitativeStepSize, other.xQuantitativeStepSize) == 0
+                && Double.compare(yQuantitativeStepSize, other.yQuantitativeStepSize) == 0
+                && xVisualStepSize == other.xVisualStepSize
+                && yVisualStepSize == other.yVisualStepSize
+                && markerSize == other.markerSize
+                && color.equals(other.color)
+                && stroke.equals(other.stroke)
+                && Double.compare(xPhase, other.xPhase) == 0
+                && Double.compare(yPhase, other.yPhase) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(plane), xQuantitativeStepSize, yQuantitativeStepSize,
+                xVisualStepSize, yVisualStepSize, markerSize, color, stroke, xPhase, yPhase);
+    }
+}
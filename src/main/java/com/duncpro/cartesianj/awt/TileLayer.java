@@ -0,0 +1,161 @@
+package com.duncpro.cartesianj.awt;
+
+import com.duncpro.cartesianj.Axis;
+import com.duncpro.cartesianj.CartesianPlaneViewport;
+import com.duncpro.cartesianj.PlaneSnapshot;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.duncpro.cartesianj.awt.TileGrid.TILE_SIZE;
+
+/**
+ * Draws the markers of plotted points from the tiles of a {@link TileCache}, rasterizing the visible tiles which are
+ * not cached yet with a {@link MarkerPainter}. A viewport which is panned over points which have not changed therefore
+ * only copies tiles, instead of drawing every visible point again.
+ *
+ * Once a frame has been drawn, the tiles surrounding the visible ones are rasterized in the background, so that
+ * panning in any direction finds them cached. That work is abandoned as soon as another frame is drawn.
+ *
+ * While previewing, the visible tiles are only rasterized if most of them are cached already. Otherwise, for instance
+ * while zooming, every tile would have to be rasterized for a zoom level which is gone by the next frame, and the
+ * caller should draw a preview of the points directly instead.
+ *
+ * Instances are not thread-safe.
+ */
+final class TileLayer {
+    /**
+     * The number of plotted points below which the points are drawn directly. Copying the visible tiles costs more
+     * than drawing so few markers.
+     */
+    static final int TILED_POINT_THRESHOLD = 10_000;
+
+    private static final long TILE_BYTES = (long) TILE_SIZE * TILE_SIZE * Integer.BYTES;
+
+    // Rasterizes the tiles around the viewports of every layer, at a lower priority than frames
+    private static final ExecutorService prerenderer = Executors.newSingleThreadExecutor(runnable -> {
+        final var thread = new Thread(runnable, "CartesianJ Tile Renderer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    // Only accessed by the prerendering thread
+    private static final MarkerPainter prerenderPainter = new MarkerPainter();
+
+    private final MarkerPainter painter = new MarkerPainter();
+
+    // Incremented by every frame. Tiles which were queued for prerendering by an earlier frame are skipped.
+    private final AtomicLong generation = new AtomicLong();
+
+    // The number of points centered within the tiles drawn by the most recent frame
+    private int visiblePointCount = 0;
+
+    /**
+     * Draws a marker of the given size for every point within the visible part of the plane, in the current color of
+     * the given graphics.
+     * @return false if the points were not drawn, because the graphics are scaled, because the cache cannot hold the
+     * visible tiles, or because a preview would rasterize too many tiles. The caller should draw the points directly.
+     */
+    boolean draw(Graphics2D graphics, CartesianPlaneViewport viewport, PlaneSnapshot snapshot, TileCache cache,
+                 int markerSize, boolean preview) {
+        final long frame = generation.incrementAndGet();
+        // Tiles are rasterized at one pixel per pixel, and would be blurred by scaled graphics
+        final int type = graphics.getTransform().getType();
+        if ((type & ~AffineTransform.TYPE_TRANSLATION) != AffineTransform.TYPE_IDENTITY) return false;
+
+        final AwtPixelConverter converter = viewport.getConverter();
+        // The screen position of tile (0, 0). The fraction of a pixel beyond it is part of the grid.
+        final long originX = (long) Math.floor(converter.getOriginPosition(Axis.X));
+        final long originY = (long) Math.floor(converter.getOriginPosition(Axis.Y));
+        final long minColumn = Math.floorDiv(-originX, TILE_SIZE);
+        final long maxColumn = Math.floorDiv(viewport.getWidth() - 1 - originX, TILE_SIZE);
+        final long minRow = Math.floorDiv(-originY, TILE_SIZE);
+        final long maxRow = Math.floorDiv(viewport.getHeight() - 1 - originY, TILE_SIZE);
+        final long visibleTiles = (maxColumn - minColumn + 1) * (maxRow - minRow + 1);
+        if (visibleTiles <= 0 || visibleTiles * TILE_BYTES > cache.getMaxBytes()) return false;
+
+        cache.sync(snapshot);
+        final TileGrid grid = TileGrid.of(viewport, markerSize, graphics.getColor(), graphics.getStroke());
+        final var tiles = new TileCache.Tile[(int) visibleTiles];
+        int missing = 0;
+        for (long row = minRow, i = 0; row <= maxRow; row++) {
+            for (long column = minColumn; column <= maxColumn; column++, i++) {
+                tiles[(int) i] = cache.get(grid, column, row);
+                if (tiles[(int) i] == null) missing++;
+            }
+        }
+        if (preview && missing * 2 > visibleTiles) return false;
+
+        visiblePointCount = 0;
+        for (long row = minRow, i = 0; row <= maxRow; row++) {
+            for (long column = minColumn; column <= maxColumn; column++, i++) {
+                TileCache.Tile tile = tiles[(int) i];
+                if (tile == null) {
+                    tile = rasterize(grid, column, row, painter);
+                    cache.put(grid, column, row, tile);
+                }
+                graphics.drawImage(tile.image, (int) (originX + (column * TILE_SIZE)),
+                        (int) (originY + (row * TILE_SIZE)), null);
+                visiblePointCount += tile.pointCount;
+            }
+        }
+
+        if (!preview) prerender(cache, grid, minColumn, maxColumn, minRow, maxRow, visibleTiles, frame);
+        return true;
+    }
+
+    /**
+     * The number of points within the tiles drawn by the most recent frame, which includes the points just beyond the
+     * edges of the viewport.
+     */
+    int getVisiblePointCount() {
+        return visiblePointCount;
+    }
+
+    /**
+     * Queues the tiles surrounding the visible ones for rasterization, unless they are cached already, or the cache
+     * cannot hold them in addition to the visible tiles.
+     */
+    private void prerender(TileCache cache, TileGrid grid, long minColumn, long maxColumn, long minRow, long maxRow,
+                           long visibleTiles, long frame) {
+        final List<long[]> adjacent = new ArrayList<>();
+        for (long row = minRow - 1; row <= maxRow + 1; row++) {
+            for (long column = minColumn - 1; column <= maxColumn + 1; column++) {
+                final boolean visible = row >= minRow && row <= maxRow && column >= minColumn && column <= maxColumn;
+                if (!visible && !cache.contains(grid, column, row)) adjacent.add(new long[] { column, row });
+            }
+        }
+        if (adjacent.isEmpty()) return;
+        final long surroundingTiles = ((maxColumn - minColumn + 3) * (maxRow - minRow + 3)) - visibleTiles;
+        if ((visibleTiles + surroundingTiles) * TILE_BYTES > cache.getMaxBytes()) return;
+        prerenderer.execute(() -> {
+            for (long[] tile : adjacent) {
+                if (generation.get() != frame) return;
+                final long column = tile[0];
+                final long row = tile[1];
+                if (cache.contains(grid, column, row)) continue;
+                cache.put(grid, column, row, rasterize(grid, column, row, prerenderPainter));
+            }
+        });
+    }
+
+    private static TileCache.Tile rasterize(TileGrid grid, long column, long row, MarkerPainter painter) {
+        final var image = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_ARGB_PRE);
+        final Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(grid.color);
+            graphics.setStroke(grid.stroke);
+            painter.paint(graphics, grid.viewportOf(column, row), grid.markerSize, 1);
+        } finally {
+            graphics.dispose();
+        }
+        return new TileCache.Tile(image, painter.getConsideredCount(), painter.getCenteredCount());
+    }
+}
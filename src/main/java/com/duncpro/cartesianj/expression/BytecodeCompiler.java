@@ -0,0 +1,360 @@
+package com.duncpro.cartesianj.expression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compiles a parsed expression into a hidden class which extends {@link Expression}, and whose
+ * {@link Expression#applyAsDouble(double)} evaluates the expression with primitive arithmetic instructions and calls
+ * to {@link Math}. The JIT compiler treats it like any hand-written function, so it is inlined into the sampling loop.
+ *
+ * A subexpression which occurs more than once is computed where it first occurs, stored in a local variable, and
+ * loaded wherever it occurs again. The method contains no branches, so the class needs no stack map frames.
+ *
+ * The parser builds a chain of operators such as {@code x + x + ... + x} as a tree which is as deep as the chain is
+ * long, so the tree is traversed with an explicit stack rather than by recursion, which could overflow the thread's
+ * stack long before the method reaches its size limit.
+ *
+ * Hidden classes are not referenced by their defining class loader, and are unloaded once their instance is no
+ * longer reachable. Instances of this class compile a single expression.
+ */
+final class BytecodeCompiler {
+    private static final String CLASS_NAME = "com/duncpro/cartesianj/expression/CompiledExpression";
+    private static final String SUPERCLASS_NAME = "com/duncpro/cartesianj/expression/Expression";
+    private static final int MAX_CODE_LENGTH = 65535;
+
+    // The opcodes used by compiled expressions
+    private static final int DCONST_0 = 0x0e;
+    private static final int DCONST_1 = 0x0f;
+    private static final int LDC2_W = 0x14;
+    private static final int DLOAD = 0x18;
+    private static final int DLOAD_1 = 0x27;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int DSTORE = 0x39;
+    private static final int DUP2 = 0x5c;
+    private static final int DRETURN = 0xaf;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int WIDE = 0xc4;
+
+    private final String source;
+    private final Node root;
+    private final ConstantPool pool = new ConstantPool();
+
+    // The number of operations which refer to each node, and the local variable of each subexpression which has
+    // been computed and stored
+    private final Map<Node, Integer> references = new IdentityHashMap<>();
+    private final Map<Node, Integer> locals = new IdentityHashMap<>();
+
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+    // Local 0 is this, and locals 1 and 2 hold x
+    private int nextLocal = 3;
+    // In slots, of which every double occupies two
+    private int stackDepth = 0;
+    private int maxStackDepth = 0;
+
+    private BytecodeCompiler(String source, Node root) {
+        this.source = requireNonNull(source);
+        this.root = requireNonNull(root);
+    }
+
+    static Expression compile(String source, Node root) {
+        return new BytecodeCompiler(source, root).compile();
+    }
+
+    private Expression compile() {
+        countReferences(root);
+        emit(root);
+        // One more byte is needed for the return instruction
+        if (code.size() >= MAX_CODE_LENGTH) {
+            throw new IllegalArgumentException("Expression is too large to compile: '" + source + "'");
+        }
+        final byte[] bytes = writeClass();
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (Expression) lookup.findConstructor(lookup.lookupClass(),
+                    MethodType.methodType(void.class, String.class)).invoke(source);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void countReferences(Node root) {
+        final Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final Node node = pending.pop();
+            final int count = references.merge(node, 1, Integer::sum);
+            if (count > 1) continue;
+            for (Node operand : node.operands) pending.push(operand);
+        }
+    }
+
+    /**
+     * An operation whose operands are being emitted.
+     */
+    private static final class PendingOperation {
+        final Node node;
+        int nextOperand = 0;
+
+        PendingOperation(Node node) {
+            this.node = node;
+        }
+    }
+
+    /**
+     * Emits the given node in post-order, so that every operation follows its operands.
+     */
+    private void emit(Node root) {
+        final Deque<PendingOperation> pending = new ArrayDeque<>();
+        enter(root, pending);
+        while (!pending.isEmpty()) {
+            final PendingOperation operation = pending.peek();
+            if (operation.nextOperand < operation.node.operands.length) {
+                enter(operation.node.operands[operation.nextOperand++], pending);
+            } else {
+                pending.pop();
+                emitOperation(operation.node);
+            }
+        }
+    }
+
+    /**
+     * Emits the given node if it is a leaf or has been computed already, or otherwise defers it until its operands
+     * have been emitted.
+     */
+    private void enter(Node node, Deque<PendingOperation> pending) {
+        switch (node.kind) {
+            case CONSTANT:
+                emitConstant(node.value);
+                return;
+            case VARIABLE:
+                code.write(DLOAD_1);
+                push();
+                return;
+            case OPERATION:
+                final Integer local = locals.get(node);
+                if (local != null) {
+                    emitLocal(DLOAD, local);
+                    push();
+                } else {
+                    pending.push(new PendingOperation(node));
+                }
+                return;
+        }
+        throw new AssertionError();
+    }
+
+    private void emitConstant(double value) {
+        // Compares bit patterns, so that -0.0 is loaded from the constant pool rather than as 0.0
+        if (Double.doubleToLongBits(value) == Double.doubleToLongBits(0.0)) {
+            code.write(DCONST_0);
+        } else if (value == 1.0) {
+            code.write(DCONST_1);
+        } else {
+            code.write(LDC2_W);
+            writeShort(code, pool.doubleConstant(value));
+        }
+        push();
+    }
+
+    /**
+     * Emits the given operation, whose operands are on the stack already.
+     */
+    private void emitOperation(Node node) {
+        final Operation operation = node.operation;
+        if (operation.opcode != 0) {
+            code.write(operation.opcode);
+        } else {
+            code.write(INVOKESTATIC);
+            writeShort(code, pool.methodReference("java/lang/Math", operation.method, operation.descriptor()));
+        }
+        // Every operation pops its operands and pushes its result
+        for (int i = 0; i < operation.arity; i++) pop();
+        push();
+
+        if (references.get(node) > 1) {
+            final int slot = nextLocal;
+            nextLocal += 2;
+            code.write(DUP2);
+            push();
+            emitLocal(DSTORE, slot);
+            pop();
+            locals.put(node, slot);
+        }
+    }
+
+    private void emitLocal(int opcode, int slot) {
+        if (slot <= 0xff) {
+            code.write(opcode);
+            code.write(slot);
+        } else {
+            code.write(WIDE);
+            code.write(opcode);
+            writeShort(code, slot);
+        }
+    }
+
+    private void push() {
+        stackDepth += 2;
+        maxStackDepth = Math.max(maxStackDepth, stackDepth);
+    }
+
+    private void pop() {
+        stackDepth -= 2;
+    }
+
+    private byte[] writeClass() {
+        final int thisClass = pool.classReference(CLASS_NAME);
+        final int superClass = pool.classReference(SUPERCLASS_NAME);
+        final int superConstructor = pool.methodReference(SUPERCLASS_NAME, "<init>", "(Ljava/lang/String;)V");
+        final int constructorName = pool.utf8("<init>");
+        final int constructorDescriptor = pool.utf8("(Ljava/lang/String;)V");
+        final int methodName = pool.utf8("applyAsDouble");
+        final int methodDescriptor = pool.utf8("(D)D");
+        final int codeAttribute = pool.utf8("Code");
+
+        final var constructorCode = new ByteArrayOutputStream();
+        constructorCode.write(ALOAD_0);
+        constructorCode.write(ALOAD_1);
+        constructorCode.write(INVOKESPECIAL);
+        writeShort(constructorCode, superConstructor);
+        constructorCode.write(RETURN);
+
+        code.write(DRETURN);
+
+        try {
+            final var bytes = new ByteArrayOutputStream();
+            final var out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(61); // Java 17
+            pool.write(out);
+            out.writeShort(0x0010 | 0x0020); // final, super
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(2); // methods
+            writeMethod(out, 0x0001 /* public */, constructorName, constructorDescriptor, codeAttribute, 2, 2,
+                    constructorCode.toByteArray());
+            writeMethod(out, 0x0001 | 0x0010 /* public, final */, methodName, methodDescriptor, codeAttribute,
+                    maxStackDepth, nextLocal, code.toByteArray());
+            out.writeShort(0); // attributes
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int access, int name, int descriptor, int codeAttribute,
+                                    int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1); // attributes
+        out.writeShort(codeAttribute);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * The constant pool of the class being written. Equal constants are stored once.
+     */
+    private static final class ConstantPool {
+        private static final int UTF8 = 1;
+        private static final int DOUBLE = 6;
+        private static final int CLASS = 7;
+        private static final int METHOD_REFERENCE = 10;
+        private static final int NAME_AND_TYPE = 12;
+
+        private final List<Object[]> entries = new ArrayList<>();
+        private final Map<List<Object>, Integer> indices = new HashMap<>();
+        // Index 0 is unused, and doubles occupy two indices
+        private int nextIndex = 1;
+
+        int utf8(String value) {
+            return add(UTF8, value);
+        }
+
+        int doubleConstant(double value) {
+            return add(DOUBLE, Double.doubleToRawLongBits(value));
+        }
+
+        int classReference(String name) {
+            return add(CLASS, utf8(name));
+        }
+
+        int methodReference(String owner, String name, String descriptor) {
+            final int owningClass = classReference(owner);
+            final int nameAndType = add(NAME_AND_TYPE, utf8(name), utf8(descriptor));
+            return add(METHOD_REFERENCE, owningClass, nameAndType);
+        }
+
+        private int add(int tag, Object... values) {
+            final var key = new ArrayList<>(values.length + 1);
+            key.add(tag);
+            for (Object value : values) key.add(value);
+            final Integer existing = indices.get(key);
+            if (existing != null) return existing;
+            final int index = nextIndex;
+            nextIndex += tag == DOUBLE ? 2 : 1;
+            if (nextIndex > 0xffff) throw new IllegalArgumentException("Expression has too many constants");
+            indices.put(key, index);
+            entries.add(key.toArray());
+            return index;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.writeShort(nextIndex);
+            for (Object[] entry : entries) {
+                final int tag = (Integer) entry[0];
+                out.writeByte(tag);
+                switch (tag) {
+                    case UTF8:
+                        out.writeUTF((String) entry[1]);
+                        break;
+                    case DOUBLE:
+                        out.writeLong((Long) entry[1]);
+                        break;
+                    case CLASS:
+                        out.writeShort((Integer) entry[1]);
+                        break;
+                    case METHOD_REFERENCE:
+                    case NAME_AND_TYPE:
+                        out.writeShort((Integer) entry[1]);
+                        out.writeShort((Integer) entry[2]);
+                        break;
+                    default:
+                        throw new AssertionError();
+                }
+            }
+        }
+    }
+}
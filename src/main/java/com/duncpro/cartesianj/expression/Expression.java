@@ -0,0 +1,74 @@
+package com.duncpro.cartesianj.expression;
+
+import com.duncpro.cartesianj.BatchFunction;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A function of x defined by the source text of a formula, such as {@code 3x^2 - sin(x) / 2}.
+ *
+ * Expressions are compiled to bytecode rather than interpreted, so they are evaluated about as fast as the equivalent
+ * lambda. Constant subexpressions are computed once while compiling, and subexpressions which occur more than once are
+ * evaluated only once per sample. Instances are immutable and thread-safe.
+ *
+ * The operators are {@code + - * / % ^}, with the usual precedence, and {@code ^} associating to the right.
+ * Writing two factors next to each other, as in {@code 2x} or {@code 3(x + 1)}, multiplies them, and binds tighter
+ * than {@code * / %}, so {@code 1/2x} is {@code 1/(2x)}. A number must not follow another factor directly, so
+ * {@code 2 3} and {@code x 2} are rejected. The constants are {@code pi} and {@code e}, and the functions are those
+ * of the same name in {@link Math}: {@code sin cos tan asin acos atan sinh cosh tanh exp sqrt cbrt abs floor ceil
+ * signum min max atan2 hypot pow}. As on a calculator, {@code ln} is the natural logarithm, and {@code log} the
+ * logarithm to base 10.
+ */
+public abstract class Expression implements BatchFunction {
+    /**
+     * The number of compiled expressions which are retained, so that plotting a formula which was plotted recently
+     * does not compile it again.
+     */
+    static final int CACHE_CAPACITY = 256;
+
+    // Keyed by source text, and evicts the least recently used expression
+    private static final Map<String, Expression> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+
+    /**
+     * Compiles the given source text. If the same text has been compiled recently, the same instance is returned,
+     * which also allows viewports to reuse the samples they have cached for it.
+     * @throws ExpressionSyntaxException if the source text is not a valid expression
+     */
+    public static Expression compile(String source) {
+        requireNonNull(source);
+        synchronized (cache) {
+            final Expression cached = cache.get(source);
+            if (cached != null) return cached;
+        }
+        // Compiled without holding the lock. Should two threads compile the same text at once, the first one wins.
+        final Expression compiled = BytecodeCompiler.compile(source, new Parser(source).parse());
+        synchronized (cache) {
+            final Expression existing = cache.putIfAbsent(source, compiled);
+            return existing == null ? compiled : existing;
+        }
+    }
+
+    private final String source;
+
+    // Only subclassed by compiled expressions
+    Expression(String source) {
+        this.source = requireNonNull(source);
+    }
+
+    public final String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,33 @@
+package com.duncpro.cartesianj.expression;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Thrown when the source text of an {@link Expression} is not a valid expression.
+ */
+public class ExpressionSyntaxException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final String source;
+    private final int index;
+
+    ExpressionSyntaxException(String message, String source, int index) {
+        super(message + " at index " + index + " of '" + source + "'");
+        this.source = requireNonNull(source);
+        this.index = index;
+    }
+
+    /**
+     * The source text which could not be parsed.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * The index of the character of the source text at which the error was detected.
+     */
+    public int getIndex() {
+        return index;
+    }
+}
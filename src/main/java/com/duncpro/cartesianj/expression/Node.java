@@ -0,0 +1,76 @@
+package com.duncpro.cartesianj.expression;
+
+import java.util.Arrays;
+
+/**
+ * A node of a parsed expression. The parser interns nodes, so two structurally equal subexpressions are represented
+ * by the same node, and a parsed expression is a directed acyclic graph rather than a tree. Nodes are compared
+ * structurally, but since operands are interned they are compared by identity.
+ */
+final class Node {
+    enum Kind { CONSTANT, VARIABLE, OPERATION }
+
+    static final Node VARIABLE = new Node(Kind.VARIABLE, 0, null, new Node[0]);
+
+    final Kind kind;
+    final double value;
+    final Operation operation;
+    final Node[] operands;
+
+    private Node(Kind kind, double value, Operation operation, Node[] operands) {
+        this.kind = kind;
+        this.value = value;
+        this.operation = operation;
+        this.operands = operands;
+    }
+
+    static Node constant(double value) {
+        return new Node(Kind.CONSTANT, value, null, new Node[0]);
+    }
+
+    static Node operation(Operation operation, Node... operands) {
+        if (operands.length != operation.arity) throw new IllegalArgumentException();
+        return new Node(Kind.OPERATION, 0, operation, operands);
+    }
+
+    boolean isConstant() {
+        return kind == Kind.CONSTANT;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Node)) return false;
+        final Node node = (Node) o;
+        if (kind != node.kind || operation != node.operation) return false;
+        // Compares bit patterns, so that 0.0 and -0.0 are distinct and NaN equals itself
+        if (Double.doubleToLongBits(value) != Double.doubleToLongBits(node.value)) return false;
+        for (int i = 0; i < operands.length; i++) {
+            if (operands[i] != node.operands[i]) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 31 * kind.hashCode() + Double.hashCode(value);
+        hash = 31 * hash + (operation == null ? 0 : operation.hashCode());
+        for (Node operand : operands) {
+            hash = 31 * hash + System.identityHashCode(operand);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case CONSTANT:
+                return Double.toString(value);
+            case VARIABLE:
+                return "x";
+            case OPERATION:
+                return operation.name() + Arrays.toString(operands);
+        }
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,88 @@
+package com.duncpro.cartesianj.expression;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * The operators and functions which expressions may use. Operators compile to a single arithmetic instruction, and
+ * functions to a call of the method of {@link Math} with the same arity. Unary operations ignore their second operand
+ * when folded.
+ */
+enum Operation {
+    ADD("+", 2, 0x63 /* dadd */, null, (a, b) -> a + b),
+    SUBTRACT("-", 2, 0x67 /* dsub */, null, (a, b) -> a - b),
+    MULTIPLY("*", 2, 0x6b /* dmul */, null, (a, b) -> a * b),
+    DIVIDE("/", 2, 0x6f /* ddiv */, null, (a, b) -> a / b),
+    REMAINDER("%", 2, 0x73 /* drem */, null, (a, b) -> a % b),
+    NEGATE("-", 1, 0x77 /* dneg */, null, (a, b) -> -a),
+    POWER("^", 2, 0, "pow", Math::pow),
+
+    SIN("sin", 1, 0, "sin", (a, b) -> Math.sin(a)),
+    COS("cos", 1, 0, "cos", (a, b) -> Math.cos(a)),
+    TAN("tan", 1, 0, "tan", (a, b) -> Math.tan(a)),
+    ASIN("asin", 1, 0, "asin", (a, b) -> Math.asin(a)),
+    ACOS("acos", 1, 0, "acos", (a, b) -> Math.acos(a)),
+    ATAN("atan", 1, 0, "atan", (a, b) -> Math.atan(a)),
+    SINH("sinh", 1, 0, "sinh", (a, b) -> Math.sinh(a)),
+    COSH("cosh", 1, 0, "cosh", (a, b) -> Math.cosh(a)),
+    TANH("tanh", 1, 0, "tanh", (a, b) -> Math.tanh(a)),
+    EXP("exp", 1, 0, "exp", (a, b) -> Math.exp(a)),
+    LN("ln", 1, 0, "log", (a, b) -> Math.log(a)),
+    LOG("log", 1, 0, "log10", (a, b) -> Math.log10(a)),
+    SQRT("sqrt", 1, 0, "sqrt", (a, b) -> Math.sqrt(a)),
+    CBRT("cbrt", 1, 0, "cbrt", (a, b) -> Math.cbrt(a)),
+    ABS("abs", 1, 0, "abs", (a, b) -> Math.abs(a)),
+    FLOOR("floor", 1, 0, "floor", (a, b) -> Math.floor(a)),
+    CEIL("ceil", 1, 0, "ceil", (a, b) -> Math.ceil(a)),
+    SIGNUM("signum", 1, 0, "signum", (a, b) -> Math.signum(a)),
+    MIN("min", 2, 0, "min", Math::min),
+    MAX("max", 2, 0, "max", Math::max),
+    ATAN2("atan2", 2, 0, "atan2", Math::atan2),
+    HYPOT("hypot", 2, 0, "hypot", Math::hypot);
+
+    private static final Map<String, Operation> functions = new HashMap<>();
+
+    static {
+        for (Operation operation : values()) {
+            if (operation.method != null && operation != POWER) functions.put(operation.symbol, operation);
+        }
+        functions.put("pow", POWER);
+    }
+
+    /**
+     * The function with the given name, or null if there is none.
+     */
+    static Operation function(String name) {
+        return functions.get(name);
+    }
+
+    final String symbol;
+    final int arity;
+    // The instruction which performs the operation, or 0 if it is performed by the method of Math with this name
+    final int opcode;
+    final String method;
+    private final DoubleBinaryOperator fold;
+
+    Operation(String symbol, int arity, int opcode, String method, DoubleBinaryOperator fold) {
+        this.symbol = symbol;
+        this.arity = arity;
+        this.opcode = opcode;
+        this.method = method;
+        this.fold = fold;
+    }
+
+    /**
+     * Performs the operation on constant operands, exactly as the compiled expression would.
+     */
+    double fold(double a, double b) {
+        return fold.applyAsDouble(a, b);
+    }
+
+    /**
+     * The descriptor of the method of {@link Math} which performs this operation.
+     */
+    String descriptor() {
+        return arity == 1 ? "(D)D" : "(DD)D";
+    }
+}
@@ -0,0 +1,223 @@
+package com.duncpro.cartesianj.expression;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Parses the source text of an expression into {@link Node}s by recursive descent.
+ *
+ * Constant subexpressions are folded while they are parsed, so {@code sin(pi / 4) * x} is parsed as a single
+ * multiplication. Every node is interned, so repeated subexpressions such as both occurrences of {@code sin(x)} in
+ * {@code sin(x) ^ 2 + sin(x)} are represented by the same node, which the compiler then evaluates only once.
+ *
+ * <pre>
+ * expression = term { ("+" | "-") term }
+ * term       = product { ("*" | "/" | "%") product }
+ * product    = unary { power }
+ * unary      = ("-" | "+") unary | power
+ * power      = primary [ "^" unary ]
+ * primary    = number | "x" | "pi" | "e" | function "(" expression { "," expression } ")" | "(" expression ")"
+ * </pre>
+ *
+ * A factor followed directly by another, as in {@code 2x} or {@code 3(x + 1)}, is a multiplication, which binds
+ * tighter than {@code * / %}, so {@code 1/2x} is {@code 1/(2x)}. The second factor must not be a number, so that
+ * {@code 2 3} is reported as an error rather than read as {@code 6}.
+ * Instances parse a single expression and are not thread-safe.
+ */
+final class Parser {
+    // Bounds the recursion, so that absurdly nested input is reported as an error instead of overflowing the stack
+    private static final int MAX_DEPTH = 500;
+
+    private final String source;
+    private final Map<Node, Node> interned = new HashMap<>();
+    private int position = 0;
+    private int depth = 0;
+
+    Parser(String source) {
+        this.source = requireNonNull(source);
+    }
+
+    Node parse() {
+        final Node root = expression();
+        skipWhitespace();
+        if (position < source.length()) throw error("Unexpected '" + source.charAt(position) + "'");
+        return root;
+    }
+
+    private Node expression() {
+        Node left = term();
+        while (true) {
+            if (accept('+')) {
+                left = operation(Operation.ADD, left, term());
+            } else if (accept('-')) {
+                left = operation(Operation.SUBTRACT, left, term());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node term() {
+        Node left = product();
+        while (true) {
+            if (accept('*')) {
+                left = operation(Operation.MULTIPLY, left, product());
+            } else if (accept('/')) {
+                left = operation(Operation.DIVIDE, left, product());
+            } else if (accept('%')) {
+                left = operation(Operation.REMAINDER, left, product());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    /**
+     * Parses factors which are written next to each other, and so are multiplied implicitly.
+     */
+    private Node product() {
+        Node left = unary();
+        while (startsImplicitFactor()) {
+            left = operation(Operation.MULTIPLY, left, power());
+        }
+        return left;
+    }
+
+    private Node unary() {
+        if (++depth > MAX_DEPTH) throw error("Expression is nested too deeply");
+        try {
+            if (accept('-')) return operation(Operation.NEGATE, unary());
+            if (accept('+')) return unary();
+            return power();
+        } finally {
+            depth--;
+        }
+    }
+
+    private Node power() {
+        final Node base = primary();
+        if (accept('^')) return operation(Operation.POWER, base, unary());
+        return base;
+    }
+
+    private Node primary() {
+        skipWhitespace();
+        if (position == source.length()) throw error("Unexpected end of expression");
+        final char c = source.charAt(position);
+        if (accept('(')) {
+            final Node inner = expression();
+            expect(')');
+            return inner;
+        }
+        if (isDigit(c) || c == '.') return number();
+        if (Character.isLetter(c)) return identifier();
+        throw error("Unexpected '" + c + "'");
+    }
+
+    private Node number() {
+        final int start = position;
+        while (position < source.length() && isDigit(source.charAt(position))) position++;
+        if (position < source.length() && source.charAt(position) == '.') {
+            position++;
+            while (position < source.length() && isDigit(source.charAt(position))) position++;
+        }
+        // An exponent only follows if it has digits, so that 2e is parsed as 2 * e
+        if (position < source.length() && (source.charAt(position) == 'e' || source.charAt(position) == 'E')) {
+            int end = position + 1;
+            if (end < source.length() && (source.charAt(end) == '+' || source.charAt(end) == '-')) end++;
+            if (end < source.length() && isDigit(source.charAt(end))) {
+                position = end;
+                while (position < source.length() && isDigit(source.charAt(position))) position++;
+            }
+        }
+        final String literal = source.substring(start, position);
+        if (literal.equals(".")) throw error("Expected a number", start);
+        return intern(Node.constant(Double.parseDouble(literal)));
+    }
+
+    private Node identifier() {
+        final int start = position;
+        while (position < source.length() && Character.isLetterOrDigit(source.charAt(position))) position++;
+        final String name = source.substring(start, position);
+        switch (name) {
+            case "x":
+                return intern(Node.VARIABLE);
+            case "pi":
+                return intern(Node.constant(Math.PI));
+            case "e":
+                return intern(Node.constant(Math.E));
+        }
+        final Operation function = Operation.function(name);
+        if (function == null) throw error("Unknown identifier '" + name + "'", start);
+        expect('(');
+        final List<Node> arguments = new ArrayList<>(function.arity);
+        arguments.add(expression());
+        while (accept(',')) arguments.add(expression());
+        expect(')');
+        if (arguments.size() != function.arity) {
+            throw error(name + " takes " + function.arity + (function.arity == 1 ? " argument" : " arguments"),
+                    start);
+        }
+        return operation(function, arguments.toArray(new Node[0]));
+    }
+
+    /**
+     * Creates a node for the given operation, or a constant if all of its operands are constant.
+     */
+    private Node operation(Operation operation, Node... operands) {
+        boolean constant = true;
+        for (Node operand : operands) constant &= operand.isConstant();
+        if (constant) {
+            final double a = operands[0].value;
+            final double b = operands.length > 1 ? operands[1].value : 0;
+            return intern(Node.constant(operation.fold(a, b)));
+        }
+        return intern(Node.operation(operation, operands));
+    }
+
+    private Node intern(Node node) {
+        final Node existing = interned.putIfAbsent(node, node);
+        return existing == null ? node : existing;
+    }
+
+    private boolean startsImplicitFactor() {
+        skipWhitespace();
+        if (position == source.length()) return false;
+        final char c = source.charAt(position);
+        if (c == '.' || isDigit(c)) throw error("Expected an operator before '" + c + "'");
+        return c == '(' || Character.isLetter(c);
+    }
+
+    private boolean accept(char c) {
+        skipWhitespace();
+        if (position < source.length() && source.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!accept(c)) throw error("Expected '" + c + "'");
+    }
+
+    private void skipWhitespace() {
+        while (position < source.length() && Character.isWhitespace(source.charAt(position))) position++;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private ExpressionSyntaxException error(String message) {
+        return error(message, position);
+    }
+
+    private ExpressionSyntaxException error(String message, int index) {
+        return new ExpressionSyntaxException(message, source, index);
+    }
+}
@@ -0,0 +1,119 @@
+package com.duncpro.cartesianj;
+
+import com.duncpro.cartesianj.awt.HeadlessCartesianPlaneViewport;
+import com.duncpro.cartesianj.awt.HeadlessRenderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Plots points from many threads at once, while other threads replace functions, register and unregister listeners
+ * and render the plane, and then verifies that no point and no notification was lost.
+ *
+ * Producer {@code p} plots the points {@code (p, 0)}, {@code (p, 1)}, ... so that every point can be attributed to
+ * the thread which plotted it, and the order of each thread's points can be checked.
+ */
+class ConcurrentPlottingStressTest {
+    private static final int PRODUCERS = 8;
+    private static final int POINTS_PER_PRODUCER = 250_000;
+    private static final int BATCH_SIZE = 1_000;
+
+    @Test
+    @Timeout(value = 2, unit = TimeUnit.MINUTES)
+    void concurrentPlottingLosesNoPoints() throws InterruptedException {
+        final var plane = new CartesianPlane();
+        final var notifiedPoints = new AtomicLong();
+        plane.addChangeListener(event -> notifiedPoints.addAndGet(event.getAddedPointCount()));
+
+        final var start = new CountDownLatch(1);
+        final var producing = new AtomicBoolean(true);
+        final var threads = new ArrayList<Thread>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            threads.add(new Thread(() -> {
+                await(start);
+                // Half the producers plot one point at a time, the other half in batches and transactions.
+                if (producer % 2 == 0) {
+                    for (int i = 0; i < POINTS_PER_PRODUCER; i++) plane.plot(producer, i);
+                    return;
+                }
+                final double[] xs = new double[BATCH_SIZE];
+                final double[] ys = new double[BATCH_SIZE];
+                for (int i = 0; i < POINTS_PER_PRODUCER; i += BATCH_SIZE) {
+                    for (int j = 0; j < BATCH_SIZE; j++) {
+                        xs[j] = producer;
+                        ys[j] = i + j;
+                    }
+                    if ((i / BATCH_SIZE) % 2 == 0) {
+                        plane.plot(xs, ys);
+                    } else {
+                        plane.update(transaction -> transaction.plot(xs, ys));
+                    }
+                }
+            }));
+        }
+
+        final var disruptors = new ArrayList<Thread>();
+        disruptors.add(new Thread(() -> {
+            await(start);
+            for (int i = 0; producing.get(); i++) {
+                final double slope = i;
+                plane.plotOperator("f" + (i % 4), (double x) -> slope * x);
+            }
+        }));
+        disruptors.add(new Thread(() -> {
+            await(start);
+            while (producing.get()) {
+                final Runnable listener = () -> {};
+                plane.addChangeListener(listener);
+                plane.removeChangeListener(listener);
+            }
+        }));
+        disruptors.add(new Thread(() -> {
+            await(start);
+            final var renderer = new HeadlessRenderer();
+            final var viewport = new HeadlessCartesianPlaneViewport(plane, 400, 300);
+            while (producing.get()) {
+                viewport.fitData();
+                renderer.render(viewport);
+            }
+        }));
+
+        threads.forEach(Thread::start);
+        disruptors.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        producing.set(false);
+        for (Thread thread : disruptors) thread.join();
+
+        final long expected = (long) PRODUCERS * POINTS_PER_PRODUCER;
+        assertEquals(expected, plane.getPlottedPointCount(), "Points were lost");
+        assertEquals(expected, notifiedPoints.get(), "Listeners were not notified of every point");
+
+        // Every producer's points must be present exactly once and in the order they were plotted.
+        final int[] next = new int[PRODUCERS];
+        plane.forEachPoint((x, y) -> {
+            final int producer = (int) x;
+            assertEquals(next[producer], y, () -> "Producer " + producer + " plotted its points out of order");
+            next[producer]++;
+        });
+        for (int p = 0; p < PRODUCERS; p++) {
+            assertEquals(POINTS_PER_PRODUCER, next[p], "Producer " + p + " lost points");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.BiFunction;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.duncpro.cartesianj.CartesianJ.present;
@@ -26,19 +25,22 @@ public class GradientDescentVisualization {
         return observations;
     }
 
-    static Function<Double, Double> line(double slope, double yIntercept) {
-        return (x) -> (x * slope) + yIntercept;
+    static Polynomial line(double slope, double yIntercept) {
+        return Polynomial.line(slope, yIntercept);
     }
 
-    static double loss(Function<Double, Double> line, List<Point> observations) {
+    static double loss(Polynomial line, List<Point> observations) {
         return observations.stream()
-                .map(point -> pow(point.getY() - line.apply(point.getX()), 2))
+                .map(point -> pow(point.getY() - line.applyAsDouble(point.getX()), 2))
                 .reduce(Double::sum)
                 .orElseThrow();
     }
 
     static void visualizeGradientDescent(List<Point> observations, CartesianPlane dataPlot, CartesianPlaneViewport slopeLossPlot, CartesianPlaneViewport interceptLossPlot) {
         final var learningRate = 0.0001;
+        // Only the most recent iterations are kept, so the loss plots do not grow for as long as descent continues.
+        final var slopeLoss = slopeLossPlot.getPlane().createSeries("loss", 1_000);
+        final var interceptLoss = interceptLossPlot.getPlane().createSeries("loss", 1_000);
 
         final BiFunction<Double, Double, Double> betterIntercept = (m, b) ->
                 observations.stream()
@@ -68,9 +70,12 @@ public class GradientDescentVisualization {
             System.out.println("slope: " + idealSlope + ", intercept: " + idealIntercept);
 
             final var model = line(idealSlope, idealIntercept);
-            dataPlot.plot("f", model);
-            slopeLossPlot.plot(new Point(idealSlope, loss(model, observations)));
-            interceptLossPlot.plot(new Point(idealIntercept, loss(model, observations)));
+            dataPlot.plotOperator("f", model);
+            final var loss = loss(model, observations);
+            slopeLoss.append(idealSlope, loss);
+            slopeLossPlot.fitDataIfNeeded();
+            interceptLoss.append(idealIntercept, loss);
+            interceptLossPlot.fitDataIfNeeded();
         } while (idealIntercept != prevIntercept || idealSlope != prevSlope);
     }
 
@@ -81,7 +86,7 @@ public class GradientDescentVisualization {
         final var slopeLossPlot = present(new CartesianPlane("Slope"));
         final var interceptLossPlot = present(new CartesianPlane("Y-Intercept"));
 
-        observations.forEach(dataPlot::plot);
+        dataPlot.getPlane().plot(observations);
         dataPlot.fitData();
 
         visualizeGradientDescent(observations, dataPlot.getPlane(), slopeLossPlot, interceptLossPlot);
@@ -0,0 +1,19 @@
+package com.duncpro.cartesianj.expression;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BytecodeCompilerTest {
+    @Test
+    void compilesLongOperatorChains() {
+        // The parser builds a chain of 4000 sums as a tree which is 4000 levels deep
+        final var source = new StringBuilder("x");
+        double expected = 2;
+        for (int i = 0; i < 4000; i++) {
+            source.append("+x*").append(i);
+            expected += 2 * i;
+        }
+        assertEquals(expected, Expression.compile(source.toString()).applyAsDouble(2));
+    }
+}
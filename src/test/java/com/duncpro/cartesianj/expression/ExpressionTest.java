@@ -0,0 +1,37 @@
+package com.duncpro.cartesianj.expression;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExpressionTest {
+    private static final double[] INPUTS = {
+            -0.0, 0.0, 1, -1, 0.5, 2, -3.75, 1e300, -1e-300, Math.PI,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE
+    };
+
+    @Test
+    void batchResultsMatchScalarResults() {
+        final String[] sources = {
+                "x", "-x", "x * 0", "1 / x", "x % 2", "x ^ 0.5", "2x^2 + 3x - 1", "sin(x) ^ 2 + sin(x)",
+                "sqrt(x) + ln(x)", "min(x, 0)", "max(x, -0)", "atan2(x, 1) / hypot(x, 1)", "abs(x) signum(x)",
+                "floor(x) - ceil(x)", "exp(-x^2)", "3"
+        };
+        for (String source : sources) {
+            final Expression expression = Expression.compile(source);
+            // Evaluate a range which starts and ends inside the arrays, to check that the offset is respected
+            final double[] xs = new double[INPUTS.length + 2];
+            System.arraycopy(INPUTS, 0, xs, 1, INPUTS.length);
+            final double[] ys = new double[xs.length];
+            ys[0] = 42;
+            ys[ys.length - 1] = 42;
+            expression.applyAsDouble(xs, ys, 1, INPUTS.length);
+            for (int i = 0; i < INPUTS.length; i++) {
+                final double x = INPUTS[i];
+                assertEquals(expression.applyAsDouble(x), ys[i + 1], () -> source + " at x = " + x);
+            }
+            assertEquals(42.0, ys[0], source + " wrote before the offset");
+            assertEquals(42.0, ys[ys.length - 1], source + " wrote past the length");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.duncpro.cartesianj.expression;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParserTest {
+    @Test
+    void respectsOperatorPrecedence() {
+        assertEquals(7.0, evaluate("1 + 2 * 3", 0));
+        assertEquals(3.0, evaluate("10 - 4 - 3", 0));
+        assertEquals(2.0, evaluate("12 / 3 / 2", 0));
+        assertEquals(512.0, evaluate("2 ^ 3 ^ 2", 0));
+        assertEquals(-4.0, evaluate("-2 ^ 2", 0));
+        assertEquals(0.5, evaluate("2 ^ -1", 0));
+        assertEquals(5.0, evaluate("1 + 7 % 4 * 2 - 2", 0));
+        assertEquals(9.0, evaluate("(1 + 2) * 3", 0));
+        assertEquals(-6.0, evaluate("-x * 3", 2));
+    }
+
+    @Test
+    void multipliesAdjacentFactors() {
+        assertEquals(4.0, evaluate("2x", 2));
+        assertEquals(9.0, evaluate("3(x + 1)", 2));
+        assertEquals(8.0, evaluate("2x^2", 2));
+        assertEquals(0.25, evaluate("1/2x", 2));
+        assertEquals(2 * Math.sin(2), evaluate("x sin(x)", 2));
+        assertEquals(2 * Math.PI, evaluate("2pi", 0));
+        assertEquals(2 * Math.E, evaluate("2e", 0));
+        assertEquals(200.0, evaluate("2e2", 0));
+        assertEquals(6.0, evaluate("(x)(x + 1)", 2));
+    }
+
+    @Test
+    void rejectsAdjacentNumbers() {
+        assertErrorAt("2 3", 2);
+        assertErrorAt("x 2", 2);
+        assertErrorAt("(x)2", 3);
+        assertErrorAt("x.5", 1);
+    }
+
+    @Test
+    void reportsWhereErrorsOccur() {
+        assertErrorAt("foo(x)", 0);
+        assertErrorAt("2 + bar", 4);
+        assertErrorAt("sin(x", 5);
+        assertErrorAt("sin x", 4);
+        assertErrorAt("max(x)", 0);
+        assertErrorAt("1 +", 3);
+        assertErrorAt("1 + * 2", 4);
+        assertErrorAt("(x))", 3);
+        assertErrorAt(".", 0);
+    }
+
+    private static double evaluate(String source, double x) {
+        return Expression.compile(source).applyAsDouble(x);
+    }
+
+    private static void assertErrorAt(String source, int index) {
+        final var e = assertThrows(ExpressionSyntaxException.class, () -> Expression.compile(source));
+        assertEquals(source, e.getSource());
+        assertEquals(index, e.getIndex(), e.getMessage());
+    }
+}